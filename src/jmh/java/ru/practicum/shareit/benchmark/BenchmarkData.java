@@ -0,0 +1,100 @@
+package ru.practicum.shareit.benchmark;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemSearchIndex;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Starts the application without the web layer against an in-memory H2 database and fills it
+ * through the services: one owner with {@code itemCount} items, each booked {@code bookingsPerItem} times
+ * by one booker, an item request for every tenth item and {@code userCount} more users.
+ */
+class BenchmarkData {
+    private static final int ITEMS_PER_REQUEST = 10;
+
+    final ConfigurableApplicationContext context;
+    final Long ownerId;
+    final Long bookerId;
+    final List<Long> itemIds = new ArrayList<>();
+
+    BenchmarkData(int itemCount, int bookingsPerItem, int userCount) {
+        context = new SpringApplicationBuilder(ShareItApp.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties("spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "logging.level.root=WARN")
+                .run();
+
+        UserService userService = context.getBean(UserService.class);
+        ItemService itemService = context.getBean(ItemService.class);
+        BookingService bookingService = context.getBean(BookingService.class);
+        ItemRequestService itemRequestService = context.getBean(ItemRequestService.class);
+
+        ownerId = userService.createUser(new User(null, "Owner", "owner@shareit.ru")).getId();
+        bookerId = userService.createUser(new User(null, "Booker", "booker@shareit.ru")).getId();
+
+        for (int i = 0; i < userCount; i++) {
+            userService.createUser(new User(null, "User" + i, "user" + i + "@shareit.ru"));
+        }
+
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Long requestId = null;
+        for (int i = 0; i < itemCount; i++) {
+            if (i % ITEMS_PER_REQUEST == 0) {
+                requestId = itemRequestService.createItemRequest(
+                        new ItemRequestDto(null, "Нужна дрель " + i, null, null), bookerId).getId();
+            }
+            Long itemId = itemService.createItem(
+                    new ItemDto(null, "Дрель " + i, "Ударная дрель модели " + i, true, null, requestId),
+                    ownerId).getId();
+            itemIds.add(itemId);
+
+            for (int j = 0; j < bookingsPerItem; j++) {
+                LocalDateTime from = start.plusDays(2L * j);
+                bookingService.createBooking(
+                        new BookingDto(null, from, from.plusDays(1), itemId, null, null, null, BookingStatus.WAITING),
+                        bookerId);
+            }
+        }
+    }
+
+    /**
+     * Adds {@code count} items of the owner with one INSERT ... SELECT and indexes them for search, for sizes
+     * where creating them through the services would take longer than the benchmark itself.
+     */
+    void insertItems(int count) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("INSERT INTO items (id, name, description, is_available, owner_id) " +
+                "SELECT NEXT VALUE FOR items_seq, CONCAT('Дрель ', x), CONCAT('Ударная дрель модели ', x), TRUE, ? " +
+                "FROM SYSTEM_RANGE(0, ?)", ownerId, count - 1);
+
+        ItemSearchIndex itemSearchIndex = context.getBean(ItemSearchIndex.class);
+        jdbcTemplate.query("SELECT id, name, description FROM items WHERE owner_id = ?", rs -> {
+            itemSearchIndex.index(new ItemDto(rs.getLong(1), rs.getString(2), rs.getString(3), true, null, null));
+        }, ownerId);
+    }
+
+    <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    void close() {
+        context.close();
+    }
+}
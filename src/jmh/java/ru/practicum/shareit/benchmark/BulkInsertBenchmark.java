@@ -0,0 +1,70 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saves {@code rows} users in one transaction while every statement round trip takes 1ms.
+ * {@code batchSize=1} sends one INSERT per row, as the identity ids forced before the switch to
+ * sequences; {@code batchSize=50} is the configured JDBC batch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class BulkInsertBenchmark {
+    @Param({"1", "50"})
+    public int batchSize;
+
+    @Param({"1000"})
+    public int rows;
+
+    @Param({"1ms"})
+    public String dbLatency;
+
+    private ConfigurableApplicationContext context;
+    private UserRepository userRepository;
+    private TransactionTemplate transactionTemplate;
+    private long sequence;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(ShareItApp.class, DbLatencyConfig.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties("spring.datasource.url=jdbc:h2:mem:bulk;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize,
+                        "shareit.benchmark.db-latency=" + dbLatency,
+                        "logging.level.root=WARN")
+                .run();
+        userRepository = context.getBean(UserRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int saveAll() {
+        List<User> users = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            long n = sequence++;
+            users.add(new User(null, "User " + n, "user" + n + "@shareit.ru"));
+        }
+        return transactionTemplate.execute(status -> userRepository.saveAll(users).size());
+    }
+}
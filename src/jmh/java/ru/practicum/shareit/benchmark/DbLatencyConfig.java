@@ -0,0 +1,56 @@
+package ru.practicum.shareit.benchmark;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * Makes every statement wait for the configured latency before it is prepared, while the pooled
+ * connection is held, like a slow database would. Passed as an extra source, not component-scanned.
+ * The wait is a plain sleep outside the driver, so it does not reproduce a driver that pins virtual
+ * threads by blocking inside {@code synchronized}; results with such a driver will be worse.
+ */
+class DbLatencyConfig {
+    @Bean
+    static BeanPostProcessor dbLatencyPostProcessor(@Value("${shareit.benchmark.db-latency}") Duration latency) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource ? new SlowDataSource((DataSource) bean, latency) : bean;
+            }
+        };
+    }
+
+    private static class SlowDataSource extends DelegatingDataSource {
+        private final long latencyMillis;
+
+        SlowDataSource(DataSource target, Duration latency) {
+            super(target);
+            this.latencyMillis = latency.toMillis();
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Connection connection = super.getConnection();
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                        if (method.getName().startsWith("prepare") || method.getName().equals("createStatement")) {
+                            Thread.sleep(latencyMillis);
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        }
+                    });
+        }
+    }
+}
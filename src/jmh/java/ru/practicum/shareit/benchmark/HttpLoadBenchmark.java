@@ -0,0 +1,74 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GET /users/{id} over HTTP from 400 concurrent clients while every statement takes 50ms.
+ * With platform threads throughput is capped by the 200 Tomcat threads; with virtual threads
+ * ({@code virtualThreads=true}, needs Java 21) by the connection pool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(400)
+@Fork(1)
+public class HttpLoadBenchmark {
+    @Param({"false", "true"})
+    public boolean virtualThreads;
+
+    @Param({"50ms"})
+    public String dbLatency;
+
+    @Param({"400"})
+    public int poolSize;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest request;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(ShareItApp.class, DbLatencyConfig.class)
+                .profiles("test")
+                .properties("server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:load;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.hikari.maximum-pool-size=" + poolSize,
+                        "shareit.virtual-threads.enabled=" + virtualThreads,
+                        "shareit.benchmark.db-latency=" + dbLatency,
+                        "logging.level.root=WARN")
+                .run();
+
+        Long userId = context.getBean(UserService.class)
+                .createUser(new User(null, "Elon", "elon@spacex.com"))
+                .getId();
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+
+        client = HttpClient.newHttpClient();
+        request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/users/" + userId)).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int getUser() throws IOException, InterruptedException {
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
@@ -0,0 +1,74 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapper and grouping costs per list of {@code size} entities. The score of {@code groupByRequestId}
+ * should grow linearly with {@code size}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+    private static final int ITEMS_PER_REQUEST = 10;
+
+    @Param({"100", "1000", "10000"})
+    public int size;
+
+    private List<Item> items;
+    private List<Booking> bookings;
+
+    @Setup
+    public void setUp() {
+        User owner = new User(1L, "Owner", "owner@shareit.ru");
+        User booker = new User(2L, "Booker", "booker@shareit.ru");
+        LocalDateTime now = LocalDateTime.now();
+
+        items = new ArrayList<>(size);
+        bookings = new ArrayList<>(size);
+        ItemRequest request = null;
+        for (long i = 0; i < size; i++) {
+            if (i % ITEMS_PER_REQUEST == 0) {
+                request = new ItemRequest(i, "Нужна вещь " + i, booker, now);
+            }
+            Item item = new Item(i, "Вещь " + i, "Описание вещи " + i, true, owner, request);
+            items.add(item);
+            bookings.add(new Booking(i, now.plusDays(i), now.plusDays(i + 1), item, booker, BookingStatus.WAITING));
+        }
+    }
+
+    @Benchmark
+    public void toItemDto(Blackhole blackhole) {
+        for (Item item : items) {
+            blackhole.consume(ItemMapper.toItemDto(item));
+        }
+    }
+
+    @Benchmark
+    public void toBookingDto(Blackhole blackhole) {
+        for (Booking booking : bookings) {
+            blackhole.consume(BookingMapper.toBookingDto(booking));
+        }
+    }
+
+    @Benchmark
+    public Object groupByRequestId() {
+        return ItemMapper.groupByRequestId(items);
+    }
+}
@@ -0,0 +1,60 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.service.ItemSearchIndex;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Item search served by the JPQL LIKE query compared with the in-memory index, up to a million items.
+ * Items are inserted in bulk; the million-item case needs a few gigabytes of heap for the index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SearchBenchmark {
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"1000", "1000000"})
+    public int itemCount;
+
+    @Param({"дрель", "модели 5"})
+    public String text;
+
+    private BenchmarkData data;
+    private ItemRepository itemRepository;
+    private ItemSearchIndex itemSearchIndex;
+
+    @Setup
+    public void setUp() {
+        data = new BenchmarkData(0, 0, 0);
+        data.insertItems(itemCount);
+        itemRepository = data.getBean(ItemRepository.class);
+        itemSearchIndex = data.getBean(ItemSearchIndex.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        data.close();
+    }
+
+    @Benchmark
+    public Object repositorySearch() {
+        return itemRepository.searchItem(text, PageRequest.of(0, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public Object indexSearch() {
+        return itemSearchIndex.search(text, 0, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public Object indexSearchByRelevance() {
+        return itemSearchIndex.searchByRelevance(text, 0, PAGE_SIZE);
+    }
+}
@@ -0,0 +1,84 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end service calls, including the repository round-trips, against embedded H2.
+ * With the default gc profiler {@code gc.alloc.rate.norm} reports the bytes allocated per call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceBenchmark {
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"200"})
+    public int itemCount;
+
+    @Param({"5"})
+    public int bookingsPerItem;
+
+    @Param({"1000"})
+    public int userCount;
+
+    private BenchmarkData data;
+    private ItemService itemService;
+    private BookingService bookingService;
+    private ItemRequestService itemRequestService;
+    private UserService userService;
+    private Long itemId;
+
+    @Setup
+    public void setUp() {
+        data = new BenchmarkData(itemCount, bookingsPerItem, userCount);
+        itemService = data.getBean(ItemService.class);
+        bookingService = data.getBean(BookingService.class);
+        itemRequestService = data.getBean(ItemRequestService.class);
+        userService = data.getBean(UserService.class);
+        itemId = data.itemIds.get(itemCount / 2);
+    }
+
+    @TearDown
+    public void tearDown() {
+        data.close();
+    }
+
+    @Benchmark
+    public Object getItemById() {
+        return itemService.getItemById(itemId, data.ownerId);
+    }
+
+    @Benchmark
+    public Object listItemsOfUser() {
+        return itemService.listItemsOfUser(data.ownerId, 0, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public Object getOwnerBookings() {
+        return bookingService.getOwnerBookings(data.ownerId, "ALL", 0, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public Object getUserBookingsAfter() {
+        return bookingService.getUserBookingsAfter(data.bookerId, "ALL", null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public Object getMyItemRequests() {
+        return itemRequestService.getMyItemRequests(data.bookerId);
+    }
+
+    @Benchmark
+    public Object listUsers() {
+        return userService.listUsers();
+    }
+}
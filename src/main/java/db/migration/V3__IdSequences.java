@@ -0,0 +1,40 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Creates the id sequences the entities allocate from, starting after the ids already taken by
+ * identity inserts, and replaces the identity default of each id column with the sequence. An
+ * instance of the previous release that still inserts without an id then draws from the same
+ * sequence instead of an identity that would hand out the ids Hibernate reserves. Written in Java
+ * because PostgreSQL and H2 have no common way to start a sequence at a queried value or to call it
+ * from a default. The increment must match {@code allocationSize} on the entities.
+ */
+public class V3__IdSequences extends BaseJavaMigration {
+    private static final int ALLOCATION_SIZE = 50;
+    private static final List<String> TABLES = List.of("users", "requests", "items", "bookings", "comments");
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        boolean postgres = context.getConnection().getMetaData().getDatabaseProductName().equals("PostgreSQL");
+        try (Statement statement = context.getConnection().createStatement()) {
+            for (String table : TABLES) {
+                long start;
+                try (ResultSet resultSet = statement.executeQuery("SELECT COALESCE(MAX(id), 0) + 1 FROM " + table)) {
+                    resultSet.next();
+                    start = resultSet.getLong(1);
+                }
+                statement.execute("CREATE SEQUENCE " + table + "_seq START WITH " + start
+                        + " INCREMENT BY " + ALLOCATION_SIZE);
+                statement.execute("ALTER TABLE " + table + " ALTER COLUMN id DROP IDENTITY");
+                statement.execute("ALTER TABLE " + table + " ALTER COLUMN id SET DEFAULT "
+                        + (postgres ? "nextval('" + table + "_seq')" : "NEXT VALUE FOR " + table + "_seq"));
+            }
+        }
+    }
+}
@@ -1,14 +1,26 @@
 package ru.practicum.shareit.booking;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.booking.dto.BookingBatchResult;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.export.NdjsonExport;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -19,6 +31,9 @@ import java.util.List;
 @RequestMapping(path = "/bookings")
 @Slf4j
 public class BookingController {
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int MAX_BATCH_SIZE = 500;
+
     public final BookingService bookingService;
 
     public BookingController(BookingService bookingService) {
@@ -35,6 +50,23 @@ public class BookingController {
         return result;
     }
 
+    /**
+     * Creates up to {@value #MAX_BATCH_SIZE} bookings of one booker. A malformed entry rejects the whole
+     * request; entries that fail the booking checks get an error in their place of the response.
+     */
+    @PostMapping("/batch")
+    public List<BookingBatchResult> createBookings(
+            @RequestBody @Size(max = MAX_BATCH_SIZE) List<@Valid BookingDto> bookingDtos,
+            @RequestHeader("X-Sharer-User-Id") Long userId) {
+        log.info("Попытка пакетного создания бронирований, пользователь id={}. Количество: {}", userId, bookingDtos.size());
+        log.debug("Бронирования: {}", bookingDtos);
+        List<BookingBatchResult> result = bookingService.createBookings(bookingDtos, userId);
+        log.info("Создано бронирований: {} из {}, пользователь id={}",
+                result.stream().filter(entry -> entry.getBooking() != null).count(), result.size(), userId);
+
+        return result;
+    }
+
     @PatchMapping("/{bookingId}")
     public BookingDto approveBooking(@PathVariable Long bookingId,
                                      @RequestParam Boolean approved,
@@ -47,13 +79,33 @@ public class BookingController {
         return result;
     }
 
+    /**
+     * Approves or rejects up to {@value #MAX_BATCH_SIZE} bookings of the owner's items at once.
+     * Returns one outcome per id, in request order: the booking this call decided, or the error the single
+     * endpoint would have returned for it.
+     */
+    @PatchMapping("/batch")
+    public List<BookingBatchResult> approveBookings(
+            @RequestBody @Size(max = MAX_BATCH_SIZE) List<@NotNull Long> bookingIds,
+            @RequestParam Boolean approved,
+            @RequestHeader("X-Sharer-User-Id") Long ownerId) {
+        log.info("Попытка изменения статуса подтверждения на {} бронирований, владелец id={}. Количество: {}",
+                approved, ownerId, bookingIds.size());
+        log.debug("Бронирования: {}", bookingIds);
+        List<BookingBatchResult> result = bookingService.approveBookings(bookingIds, ownerId, approved);
+        log.info("Получены статусы бронирований владельца id={}. Количество: {}", ownerId, result.size());
+
+        return result;
+    }
+
     @GetMapping("/{bookingId}")
     public BookingDto getBookingById(@PathVariable Long bookingId,
                                      @RequestHeader("X-Sharer-User-Id") Long userId) {
-        log.info("Попытка получения бронирования id=: {}, пользователем id={}",
+        log.debug("Попытка получения бронирования id=: {}, пользователем id={}",
                 bookingId, userId);
         BookingDto result = bookingService.getBookingById(bookingId, userId);
-        log.info("Бронирование получено: {}", result);
+        log.info("Бронирование получено: id={}, пользователем id={}", result.getId(), userId);
+        log.debug("Бронирование: {}", result);
 
         return result;
     }
@@ -62,11 +114,16 @@ public class BookingController {
     public List<BookingDto> getUserBookings(@RequestParam(defaultValue = "ALL") String state,
                                             @RequestHeader("X-Sharer-User-Id") Long userId,
                                             @RequestParam(defaultValue = "0") @PositiveOrZero int from,
-                                            @RequestParam(defaultValue = "10") @Positive int size) {
-        log.info("Попытка получения списка всех бронирований текущего пользователя id=: {}, статус={}",
+                                            @RequestParam(defaultValue = "10") @Positive int size,
+                                            @RequestParam(required = false) String after,
+                                            HttpServletResponse response) {
+        log.debug("Попытка получения списка всех бронирований текущего пользователя id=: {}, статус={}",
                 userId, state);
-        List<BookingDto> result = bookingService.getUserBookings(userId, state, from, size);
-        log.info("Получен список: {}", result);
+        List<BookingDto> result = after == null
+                ? bookingService.getUserBookings(userId, state, from, size)
+                : withNextCursor(bookingService.getUserBookingsAfter(userId, state, after, size), response);
+        log.info("Получен список бронирований пользователя id={}, статус={}. Количество: {}", userId, state, result.size());
+        log.debug("Получен список: {}", result);
 
         return result;
     }
@@ -75,12 +132,50 @@ public class BookingController {
     public List<BookingDto> getOwnerBookings(@RequestParam(defaultValue = "ALL") String state,
                                              @RequestHeader("X-Sharer-User-Id") Long userId,
                                              @RequestParam(defaultValue = "0") @PositiveOrZero int from,
-                                             @RequestParam(defaultValue = "10") @Positive int size) {
-        log.info("Попытка получения списка всех бронирований владельца id=: {}, статус={}",
+                                             @RequestParam(defaultValue = "10") @Positive int size,
+                                             @RequestParam(required = false) String after,
+                                             HttpServletResponse response) {
+        log.debug("Попытка получения списка всех бронирований владельца id=: {}, статус={}",
                 userId, state);
-        List<BookingDto> result = bookingService.getOwnerBookings(userId, state, from, size);
-        log.info("Получен список: {}", result);
+        List<BookingDto> result = after == null
+                ? bookingService.getOwnerBookings(userId, state, from, size)
+                : withNextCursor(bookingService.getOwnerBookingsAfter(userId, state, after, size), response);
+        log.info("Получен список бронирований владельца id={}, статус={}. Количество: {}", userId, state, result.size());
+        log.debug("Получен список: {}", result);
 
         return result;
     }
+
+    /**
+     * Streams the bookings of the owner's items as NDJSON, one booking per line. With {@code since}, only
+     * bookings created or changed at or after that moment, less {@link NdjsonExport#SINCE_OVERLAP}, are
+     * written, so a client can pull increments and deduplicates them by id.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportOwnerBookings(
+            @RequestHeader("X-Sharer-User-Id") Long ownerId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since) {
+        log.info("Попытка выгрузки бронирований владельца id={}, начиная с {}", ownerId, since);
+        NdjsonExport export = bookingService.exportOwnerBookings(ownerId, since);
+        StreamingResponseBody body = out -> {
+            long count = export.writeTo(out);
+            log.info("Выгружены бронирования владельца id={}. Количество: {}", ownerId, count);
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    /**
+     * Keyset mode: {@code after=<end>,<id>} continues after the given booking, an empty value starts
+     * from the first one. The cursor of the next page is returned in the X-Next-Cursor header.
+     */
+    private List<BookingDto> withNextCursor(Slice<BookingDto> slice, HttpServletResponse response) {
+        if (slice.hasNext()) {
+            List<BookingDto> content = slice.getContent();
+            response.setHeader(NEXT_CURSOR_HEADER, BookingCursor.of(content.get(content.size() - 1)).format());
+        }
+        return slice.getContent();
+    }
 }
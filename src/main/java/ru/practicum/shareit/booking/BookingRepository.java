@@ -1,36 +1,189 @@
 package ru.practicum.shareit.booking;
 
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import ru.practicum.shareit.booking.dto.BookingExportDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingPhase;
 import ru.practicum.shareit.booking.model.BookingStatus;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface BookingRepository extends JpaRepository<Booking, Long> {
-    Page<Booking> findByBookerIdOrderByEndDesc(Long bookerId, Pageable page);
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
-    Page<Booking> findByBookerIdAndStartIsBeforeAndEndIsAfterOrderByEndDesc(Long bookerId, LocalDateTime before, LocalDateTime after, Pageable page);
-
-    Page<Booking> findByBookerIdAndEndIsBeforeOrderByEndDesc(Long bookerId, LocalDateTime now, Pageable page);
+/**
+ * Finders filter on the foreign key columns through {@code b.booker.id} and {@code b.item.id} in JPQL, and on
+ * the owner through a subquery on items. Derived queries would instead outer join the referenced table and
+ * filter on its id, which keeps the bookings indexes out of the plan ({@code QueryPlanTest}).
+ */
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingRepositoryCustom {
+    @EntityGraph(Booking.WITH_DETAILS)
+    @Query("select b from Booking as b where b.booker.id = ?1 order by b.end desc")
+    Slice<Booking> findByBookerIdOrderByEndDesc(Long bookerId, Pageable page);
 
+    @EntityGraph(Booking.WITH_DETAILS)
+    @Query("select b from Booking as b where b.booker.id = ?1 and b.end < ?2 order by b.end desc")
     List<Booking> findByBookerIdAndEndIsBeforeOrderByEndDesc(Long bookerId, LocalDateTime now);
 
-    Page<Booking> findByBookerIdAndStartIsAfterOrderByEndDesc(Long bookerId, LocalDateTime now, Pageable page);
+    @EntityGraph(Booking.WITH_DETAILS)
+    @Query("select b from Booking as b where b.booker.id = ?1 and b.status = ?2 order by b.end desc")
+    Slice<Booking> findByBookerIdAndStatusOrderByEndDesc(Long bookerId, BookingStatus state, Pageable page);
 
-    Page<Booking> findByBookerIdAndStatusOrderByEndDesc(Long bookerId, BookingStatus state, Pageable page);
+    @EntityGraph(Booking.WITH_DETAILS)
+    @Query("select b from Booking as b " +
+            "where b.item.id in (select i.id from Item as i where i.owner.id = ?1) " +
+            "order by b.end desc")
+    Slice<Booking> findByItemOwnerIdOrderByEndDesc(Long bookerId, Pageable page);
 
-    Page<Booking> findByItemOwnerIdOrderByEndDesc(Long bookerId, Pageable page);
+    @EntityGraph(Booking.WITH_DETAILS)
+    @Query("select b from Booking as b " +
+            "where b.item.id in (select i.id from Item as i where i.owner.id = ?1) and b.status = ?2 " +
+            "order by b.end desc")
+    Slice<Booking> findByItemOwnerIdAndStatusOrderByEndDesc(Long bookerId, BookingStatus state, Pageable page);
 
-    Page<Booking> findByItemOwnerIdAndStartIsBeforeAndEndIsAfterOrderByEndDesc(Long bookerId, LocalDateTime before, LocalDateTime after, Pageable page);
+    @Query("select b from Booking as b where b.item.id = ?1")
+    List<Booking> findAllByItemId(Long id);
 
-    Page<Booking> findByItemOwnerIdAndEndIsBeforeOrderByEndDesc(Long bookerId, LocalDateTime now, Pageable page);
+    @EntityGraph(Booking.WITH_DETAILS)
+    Optional<Booking> findWithDetailsById(Long id);
 
-    Page<Booking> findByItemOwnerIdAndStartIsAfterOrderByEndDesc(Long bookerId, LocalDateTime now, Pageable page);
+    /**
+     * Sets the status of a booking of the owner's item if it is still in {@code from}.
+     * Returns 0 when the booking is missing, belongs to another owner or has already been decided.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Booking as b set b.status = ?4, b.updatedAt = ?5 " +
+            "where b.id = ?1 and b.status = ?3 " +
+            "and b.item.id in (select i.id from Item as i where i.owner.id = ?2)")
+    int updateStatusOfOwnerBooking(Long id, Long ownerId, BookingStatus from, BookingStatus to, LocalDateTime now);
 
-    Page<Booking> findByItemOwnerIdAndStatusOrderByEndDesc(Long bookerId, BookingStatus state, Pageable page);
+    /**
+     * Locks those bookings of the owner's items that are still in {@code status} and returns their ids, so that
+     * a concurrent decision waits and the following update is known to change exactly these bookings.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b.id from Booking as b where b.id in ?1 and b.status = ?3 " +
+            "and b.item.id in (select i.id from Item as i where i.owner.id = ?2)")
+    List<Long> findIdsOfOwnerBookingsForUpdate(Collection<Long> ids, Long ownerId, BookingStatus status);
 
-    List<Booking> findAllByItemId(Long id);
+    /**
+     * Sets the status of those bookings of the owner's items that are still in {@code from}, with one statement.
+     * Returns the number of bookings changed.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Booking as b set b.status = ?4, b.updatedAt = ?5 " +
+            "where b.id in ?1 and b.status = ?3 " +
+            "and b.item.id in (select i.id from Item as i where i.owner.id = ?2)")
+    int updateStatusOfOwnerBookings(Collection<Long> ids, Long ownerId, BookingStatus from, BookingStatus to,
+                                    LocalDateTime now);
+
+    @EntityGraph(Booking.WITH_DETAILS)
+    List<Booking> findByIdInAndItemOwnerIdOrderById(Collection<Long> ids, Long ownerId);
+
+    /**
+     * Moves bookings of the given phases that ended before {@code now} to {@code to}.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Booking as b set b.phase = ?2 where b.phase in ?1 and b.end < ?3")
+    int updatePhaseOfEnded(Collection<BookingPhase> from, BookingPhase to, LocalDateTime now);
+
+    /**
+     * Moves bookings of the given phase that started before {@code now} to {@code to}.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Booking as b set b.phase = ?2 where b.phase = ?1 and b.start < ?3")
+    int updatePhaseOfStarted(BookingPhase from, BookingPhase to, LocalDateTime now);
+
+    @Query("select case when count(b) > 0 then true else false end " +
+            "from Booking as b " +
+            "where b.item.id = ?1 and b.status in ?2 and b.start < ?3 and b.end > ?4")
+    boolean existsByItemIdAndStatusInAndStartBeforeAndEndAfter(
+            Long itemId, Collection<BookingStatus> statuses, LocalDateTime end, LocalDateTime start);
+
+    /**
+     * Checks whether a waiting or approved booking of the item intersects [start, end).
+     */
+    default boolean existsOverlapping(Long itemId, LocalDateTime start, LocalDateTime end) {
+        return existsByItemIdAndStatusInAndStartBeforeAndEndAfter(
+                itemId, List.of(BookingStatus.WAITING, BookingStatus.APPROVED), end, start);
+    }
+
+    @Query("select b from Booking as b " +
+            "where b.item.id in ?1 and b.status in ?2 and b.start < ?3 and b.end > ?4")
+    List<Booking> findAllByItemIdInAndStatusInAndStartBeforeAndEndAfter(
+            Collection<Long> itemIds, Collection<BookingStatus> statuses, LocalDateTime end, LocalDateTime start);
+
+    /**
+     * Finds the waiting and approved bookings of the items that intersect [start, end).
+     */
+    default List<Booking> findOverlapping(Collection<Long> itemIds, LocalDateTime start, LocalDateTime end) {
+        return findAllByItemIdInAndStatusInAndStartBeforeAndEndAfter(
+                itemIds, List.of(BookingStatus.WAITING, BookingStatus.APPROVED), end, start);
+    }
+
+    default Optional<Booking> findFirstByItemIdAndItemOwnerIdAndStartBeforeAndStatusNotOrderByStartDesc(
+            Long itemId, Long ownerId, LocalDateTime now, BookingStatus status) {
+        return findLastStartedBefore(itemId, ownerId, now, status, PageRequest.of(0, 1)).stream().findFirst();
+    }
+
+    default Optional<Booking> findFirstByItemIdAndItemOwnerIdAndStartAfterAndStatusNotOrderByStartAsc(
+            Long itemId, Long ownerId, LocalDateTime now, BookingStatus status) {
+        return findFirstStartingAfter(itemId, ownerId, now, status, PageRequest.of(0, 1)).stream().findFirst();
+    }
+
+    @Query("select b from Booking as b " +
+            "where b.item.id = ?1 and b.item.owner.id = ?2 and b.start < ?3 and b.status <> ?4 " +
+            "order by b.start desc")
+    List<Booking> findLastStartedBefore(Long itemId, Long ownerId, LocalDateTime now, BookingStatus status,
+                                        Pageable page);
+
+    @Query("select b from Booking as b " +
+            "where b.item.id = ?1 and b.item.owner.id = ?2 and b.start > ?3 and b.status <> ?4 " +
+            "order by b.start asc")
+    List<Booking> findFirstStartingAfter(Long itemId, Long ownerId, LocalDateTime now, BookingStatus status,
+                                         Pageable page);
+
+    @Query("select b " +
+            "from Booking as b " +
+            "join fetch b.item as i " +
+            "join fetch b.booker " +
+            "where i.id in ?1")
+    List<Booking> findAllByItemIdIn(List<Long> itemIds);
+
+    /**
+     * Reads the bookings of the owner's items through a database cursor in (start, id) order.
+     * Must be consumed and closed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select new ru.practicum.shareit.booking.dto.BookingExportDto(" +
+            "b.id, b.start, b.end, b.item.id, b.booker.id, b.status, b.updatedAt) " +
+            "from Booking as b " +
+            "where b.item.owner.id = ?1 " +
+            "order by b.start, b.id")
+    Stream<BookingExportDto> streamOwnerBookings(Long ownerId);
+
+    /**
+     * Reads the bookings of the owner's items created or changed at or after {@code since}, in (updatedAt, id)
+     * order. Must be consumed and closed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select new ru.practicum.shareit.booking.dto.BookingExportDto(" +
+            "b.id, b.start, b.end, b.item.id, b.booker.id, b.status, b.updatedAt) " +
+            "from Booking as b " +
+            "where b.item.owner.id = ?1 and b.updatedAt >= ?2 " +
+            "order by b.updatedAt, b.id")
+    Stream<BookingExportDto> streamOwnerBookingsSince(Long ownerId, LocalDateTime since);
 }
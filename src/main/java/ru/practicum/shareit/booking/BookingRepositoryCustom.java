@@ -0,0 +1,32 @@
+package ru.practicum.shareit.booking;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingPhase;
+import ru.practicum.shareit.booking.model.BookingState;
+
+import java.time.LocalDateTime;
+
+public interface BookingRepositoryCustom {
+    /**
+     * Page of bookings in the phase, in (end desc, id desc) order. The page is read by keyset after the row
+     * that precedes it, so the skipped rows are never loaded with their item and booker. Filters on the
+     * stored phase and the dates, which also catches the bookings that crossed into it since the last
+     * scheduler tick.
+     */
+    Slice<Booking> findBookerBookingsInPhase(Long bookerId, BookingPhase phase, LocalDateTime now, Pageable page);
+
+    Slice<Booking> findOwnerBookingsInPhase(Long ownerId, BookingPhase phase, LocalDateTime now, Pageable page);
+
+    /**
+     * Seeks bookings strictly after the cursor in (end desc, id desc) order without a count query.
+     * A null cursor starts from the first booking.
+     */
+    Slice<Booking> findBookerBookingsAfter(Long bookerId, BookingState state, LocalDateTime now,
+                                           BookingCursor cursor, int size);
+
+    Slice<Booking> findOwnerBookingsAfter(Long ownerId, BookingState state, LocalDateTime now,
+                                          BookingCursor cursor, int size);
+}
@@ -0,0 +1,186 @@
+package ru.practicum.shareit.booking;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingPhase;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.model.Item;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BookingRepositoryCustomImpl implements BookingRepositoryCustom {
+    private static final String FETCH_GRAPH_HINT = "javax.persistence.fetchgraph";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Slice<Booking> findBookerBookingsInPhase(Long bookerId, BookingPhase phase, LocalDateTime now,
+                                                    Pageable page) {
+        return findInPhase((cb, booking) -> cb.equal(booking.get("booker").get("id"), bookerId),
+                phase, now, page);
+    }
+
+    @Override
+    public Slice<Booking> findOwnerBookingsInPhase(Long ownerId, BookingPhase phase, LocalDateTime now,
+                                                   Pageable page) {
+        return findInPhase(ownerPredicate(ownerId), phase, now, page);
+    }
+
+    @Override
+    public Slice<Booking> findBookerBookingsAfter(Long bookerId, BookingState state, LocalDateTime now,
+                                                  BookingCursor cursor, int size) {
+        return findAfter((cb, booking) -> cb.equal(booking.get("booker").get("id"), bookerId),
+                state, now, cursor, size);
+    }
+
+    @Override
+    public Slice<Booking> findOwnerBookingsAfter(Long ownerId, BookingState state, LocalDateTime now,
+                                                 BookingCursor cursor, int size) {
+        return findAfter(ownerPredicate(ownerId), state, now, cursor, size);
+    }
+
+    private Slice<Booking> findAfter(BookingPredicate userPredicate, BookingState state, LocalDateTime now,
+                                     BookingCursor cursor, int size) {
+        BookingPredicate filter = (cb, booking) -> {
+            switch (state) {
+                case CURRENT:
+                case PAST:
+                case FUTURE:
+                    return cb.and(userPredicate.toPredicate(cb, booking),
+                            phasePredicate(cb, booking, BookingPhase.valueOf(state.name()), now));
+                case WAITING:
+                case REJECTED:
+                    return cb.and(userPredicate.toPredicate(cb, booking),
+                            cb.equal(booking.get("status"), BookingStatus.valueOf(state.name())));
+                default:
+                    return userPredicate.toPredicate(cb, booking);
+            }
+        };
+
+        return seek(filter, cursor, PageRequest.of(0, size));
+    }
+
+    /**
+     * Serves the offset page by keyset: the (end, id) of the row just before the page is read without the
+     * fetch joins, and the page itself is then sought after it like {@link #findAfter}.
+     */
+    private Slice<Booking> findInPhase(BookingPredicate userPredicate, BookingPhase phase, LocalDateTime now,
+                                       Pageable page) {
+        BookingPredicate filter = (cb, booking) -> cb.and(userPredicate.toPredicate(cb, booking),
+                phasePredicate(cb, booking, phase, now));
+
+        BookingCursor cursor = null;
+        if (page.getOffset() > 0) {
+            cursor = cursorAt(filter, page.getOffset() - 1);
+            if (cursor == null) {
+                return new SliceImpl<>(List.of(), page, false);
+            }
+        }
+        return seek(filter, cursor, page);
+    }
+
+    private BookingCursor cursorAt(BookingPredicate filter, long position) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Booking> booking = query.from(Booking.class);
+        Path<LocalDateTime> end = booking.get("end");
+        Path<Long> id = booking.get("id");
+
+        query.multiselect(end, id)
+                .where(filter.toPredicate(cb, booking))
+                .orderBy(cb.desc(end), cb.desc(id));
+
+        return entityManager.createQuery(query)
+                .setFirstResult((int) position)
+                .setMaxResults(1)
+                .getResultStream()
+                .findFirst()
+                .map(tuple -> new BookingCursor(tuple.get(0, LocalDateTime.class), tuple.get(1, Long.class)))
+                .orElse(null);
+    }
+
+    /**
+     * Reads up to {@code page.getPageSize()} bookings strictly after the cursor in (end desc, id desc) order,
+     * with one extra row to tell whether there is a next slice.
+     */
+    private Slice<Booking> seek(BookingPredicate filter, BookingCursor cursor, Pageable page) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Booking> query = cb.createQuery(Booking.class);
+        Root<Booking> booking = query.from(Booking.class);
+        Path<LocalDateTime> end = booking.get("end");
+        Path<Long> id = booking.get("id");
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(filter.toPredicate(cb, booking));
+        if (cursor != null) {
+            predicates.add(cb.or(
+                    cb.lessThan(end, cursor.getEnd()),
+                    cb.and(cb.equal(end, cursor.getEnd()), cb.lessThan(id, cursor.getId()))));
+        }
+
+        query.select(booking)
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.desc(end), cb.desc(id));
+
+        List<Booking> result = entityManager.createQuery(query)
+                .setHint(FETCH_GRAPH_HINT, entityManager.getEntityGraph(Booking.WITH_DETAILS))
+                .setMaxResults(page.getPageSize() + 1)
+                .getResultList();
+
+        boolean hasNext = result.size() > page.getPageSize();
+        return new SliceImpl<>(hasNext ? result.subList(0, page.getPageSize()) : result, page, hasNext);
+    }
+
+    /**
+     * Selects the phase without OR branches, so the phase and end date indexes bound the scan. A booking still
+     * stored in an earlier phase after its boundary passed, because the scheduler has not ticked yet, is
+     * matched by its dates: CURRENT takes FUTURE and CURRENT rows that started and have not ended, and PAST is
+     * decided by the end date alone, since a stored PAST booking has always ended.
+     */
+    private Predicate phasePredicate(CriteriaBuilder cb, Root<Booking> booking, BookingPhase phase,
+                                     LocalDateTime now) {
+        Path<BookingPhase> stored = booking.get("phase");
+        Path<LocalDateTime> start = booking.get("start");
+        Path<LocalDateTime> end = booking.get("end");
+
+        switch (phase) {
+            case FUTURE:
+                return cb.and(cb.equal(stored, BookingPhase.FUTURE), cb.greaterThan(start, now));
+            case CURRENT:
+                return cb.and(stored.in(BookingPhase.FUTURE, BookingPhase.CURRENT),
+                        cb.lessThan(start, now), cb.greaterThan(end, now));
+            default:
+                return cb.lessThan(end, now);
+        }
+    }
+
+    /**
+     * Matches the bookings of the owner's items through a subquery on items, so the bookings are read through
+     * an item index instead of being joined to their item and filtered afterwards.
+     */
+    private static BookingPredicate ownerPredicate(Long ownerId) {
+        return (cb, booking) -> {
+            Subquery<Long> items = cb.createQuery().subquery(Long.class);
+            Root<Item> item = items.from(Item.class);
+            items.select(item.get("id")).where(cb.equal(item.get("owner").get("id"), ownerId));
+
+            return booking.get("item").get("id").in(items);
+        };
+    }
+
+    private interface BookingPredicate {
+        Predicate toPredicate(CriteriaBuilder cb, Root<Booking> booking);
+    }
+}
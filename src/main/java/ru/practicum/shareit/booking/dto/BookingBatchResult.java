@@ -0,0 +1,29 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Outcome of one entry of a batch: the created or decided booking, or the error the single-booking
+ * endpoint would have returned for it.
+ */
+@Data
+@AllArgsConstructor
+public class BookingBatchResult {
+    private BookingDto booking;
+    private String error;
+    private String description;
+
+    public static BookingBatchResult created(BookingDto booking) {
+        return new BookingBatchResult(booking, null, null);
+    }
+
+    public static BookingBatchResult decided(BookingDto booking) {
+        return new BookingBatchResult(booking, null, null);
+    }
+
+    public static BookingBatchResult failed(HttpStatus status, String description) {
+        return new BookingBatchResult(null, status.toString(), description);
+    }
+}
@@ -0,0 +1,41 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import ru.practicum.shareit.exception.InvalidCursorException;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Position in a booking list ordered by end date and id, both descending.
+ * Serialized as {@code <end>,<id>}, e.g. {@code 2022-10-10T12:00:00,15}.
+ */
+@Data
+@AllArgsConstructor
+public class BookingCursor {
+    private LocalDateTime end;
+    private Long id;
+
+    public static BookingCursor of(BookingDto bookingDto) {
+        return new BookingCursor(bookingDto.getEnd(), bookingDto.getId());
+    }
+
+    public static BookingCursor parse(String value) {
+        int separator = value.lastIndexOf(',');
+        if (separator < 0) {
+            throw new InvalidCursorException("Некорректный курсор: " + value);
+        }
+        try {
+            return new BookingCursor(
+                    LocalDateTime.parse(value.substring(0, separator)),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new InvalidCursorException("Некорректный курсор: " + value);
+        }
+    }
+
+    public String format() {
+        return end + "," + id;
+    }
+}
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.ToString;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Flat booking row for bulk export.
+ */
+@Data
+@ToString
+@AllArgsConstructor
+public class BookingExportDto {
+    private Long id;
+    private LocalDateTime start;
+    private LocalDateTime end;
+    private Long itemId;
+    private Long bookerId;
+    private BookingStatus status;
+    private LocalDateTime updatedAt;
+}
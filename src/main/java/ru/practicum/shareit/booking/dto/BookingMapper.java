@@ -6,6 +6,9 @@ import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.dto.UserMapper;
 import ru.practicum.shareit.user.model.User;
 
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
 public class BookingMapper {
     public static BookingDto toBookingDto(Booking booking) {
         return new BookingDto(
@@ -23,11 +26,19 @@ public class BookingMapper {
     public static Booking toBooking(BookingDto bookingDto, User booker, Item item) {
         return new Booking(
                 bookingDto.getId(),
-                bookingDto.getStart(),
-                bookingDto.getEnd(),
+                toStoredPrecision(bookingDto.getStart()),
+                toStoredPrecision(bookingDto.getEnd()),
                 item,
                 booker,
                 bookingDto.getStatus()
         );
     }
+
+    /**
+     * Timestamp columns keep microseconds. Truncating before save keeps the returned booking, and the
+     * keyset cursor built from it, equal to the stored row.
+     */
+    private static LocalDateTime toStoredPrecision(LocalDateTime dateTime) {
+        return dateTime == null ? null : dateTime.truncatedTo(ChronoUnit.MICROS);
+    }
 }
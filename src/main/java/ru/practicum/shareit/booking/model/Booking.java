@@ -1,6 +1,5 @@
 package ru.practicum.shareit.booking.model;
 
-import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
@@ -15,13 +14,26 @@ import java.time.LocalDateTime;
  */
 @Data
 @ToString
-@AllArgsConstructor
 @NoArgsConstructor
 @Entity
 @Table(name = "bookings")
+@NamedEntityGraph(
+        name = Booking.WITH_DETAILS,
+        attributeNodes = {
+                @NamedAttributeNode(value = "item", subgraph = "item"),
+                @NamedAttributeNode("booker")},
+        subgraphs = {
+                @NamedSubgraph(name = "item", attributeNodes = @NamedAttributeNode(value = "request", subgraph = "request")),
+                @NamedSubgraph(name = "request", attributeNodes = @NamedAttributeNode("requestor"))})
 public class Booking implements Comparable<Booking> {
+    /**
+     * Fetch plan with everything {@code BookingMapper.toBookingDto} dereferences.
+     */
+    public static final String WITH_DETAILS = "Booking.withDetails";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_seq")
+    @SequenceGenerator(name = "bookings_seq", sequenceName = "bookings_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "start_date")
@@ -42,6 +54,34 @@ public class Booking implements Comparable<Booking> {
     @Enumerated(EnumType.STRING)
     private BookingStatus status;
 
+    @Column
+    @Enumerated(EnumType.STRING)
+    private BookingPhase phase;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public Booking(Long id, LocalDateTime start, LocalDateTime end, Item item, User booker, BookingStatus status) {
+        this.id = id;
+        this.start = start;
+        this.end = end;
+        this.item = item;
+        this.booker = booker;
+        this.status = status;
+    }
+
+    @PrePersist
+    void classifyPhase() {
+        LocalDateTime now = LocalDateTime.now();
+        phase = BookingPhase.of(start, end, now);
+        updatedAt = now;
+    }
+
+    @PreUpdate
+    void touch() {
+        updatedAt = LocalDateTime.now();
+    }
+
     @Override
     public int compareTo(Booking o) {
         return (this.start.compareTo(o.getStart()));
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.booking.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Time-derived position of a booking, stored in {@code bookings.phase} and advanced by
+ * {@code BookingPhaseScheduler}. Only ever moves forward: FUTURE, CURRENT, PAST.
+ */
+public enum BookingPhase {
+    FUTURE,
+    CURRENT,
+    PAST;
+
+    public static BookingPhase of(LocalDateTime start, LocalDateTime end, LocalDateTime now) {
+        if (end.isBefore(now)) {
+            return PAST;
+        }
+        if (start.isAfter(now)) {
+            return FUTURE;
+        }
+        return CURRENT;
+    }
+}
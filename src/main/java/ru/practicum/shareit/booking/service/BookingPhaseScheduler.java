@@ -0,0 +1,42 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.model.BookingPhase;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Advances the stored {@link BookingPhase} of bookings as time passes, so the CURRENT/PAST/FUTURE
+ * lists filter on an indexed column instead of comparing timestamps. Each tick is two set-based
+ * updates and catches up on any missed ticks; reads cover the gap between ticks themselves.
+ */
+@Component
+@Slf4j
+public class BookingPhaseScheduler {
+    private final BookingRepository bookingRepository;
+
+    @Autowired
+    public BookingPhaseScheduler(BookingRepository bookingRepository) {
+        this.bookingRepository = bookingRepository;
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking-phase.interval:PT1M}")
+    @Transactional
+    public void advancePhases() {
+        LocalDateTime now = LocalDateTime.now();
+
+        int ended = bookingRepository.updatePhaseOfEnded(
+                List.of(BookingPhase.FUTURE, BookingPhase.CURRENT), BookingPhase.PAST, now);
+        int started = bookingRepository.updatePhaseOfStarted(BookingPhase.FUTURE, BookingPhase.CURRENT, now);
+
+        if (ended > 0 || started > 0) {
+            log.debug("Фазы бронирований обновлены: завершено {}, началось {}", ended, started);
+        }
+    }
+}
@@ -1,17 +1,31 @@
 package ru.practicum.shareit.booking.service;
 
+import org.springframework.data.domain.Slice;
+import ru.practicum.shareit.booking.dto.BookingBatchResult;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.export.NdjsonExport;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface BookingService {
     BookingDto createBooking(BookingDto bookingDto, Long userId);
 
+    List<BookingBatchResult> createBookings(List<BookingDto> bookingDtos, Long userId);
+
     BookingDto approveBooking(Long id, Long ownerId, Boolean approved);
 
+    List<BookingBatchResult> approveBookings(List<Long> ids, Long ownerId, Boolean approved);
+
     BookingDto getBookingById(Long id, Long ownerId);
 
     List<BookingDto> getUserBookings(Long userId, String state, int from, int size);
 
     List<BookingDto> getOwnerBookings(Long ownerId, String state, int from, int size);
+
+    Slice<BookingDto> getUserBookingsAfter(Long userId, String state, String after, int size);
+
+    Slice<BookingDto> getOwnerBookingsAfter(Long ownerId, String state, String after, int size);
+
+    NdjsonExport exportOwnerBookings(Long ownerId, LocalDateTime since);
 }
@@ -2,22 +2,39 @@ package ru.practicum.shareit.booking.service;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.dto.BookingBatchResult;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingPhase;
+import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.exception.*;
+import ru.practicum.shareit.export.NdjsonExport;
+import ru.practicum.shareit.export.NdjsonWriter;
 import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserExistenceCache;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -26,31 +43,32 @@ public class BookingServiceImpl implements BookingService {
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
+    private final UserExistenceCache userExistenceCache;
+    private final NdjsonWriter ndjsonWriter;
 
     @Autowired
     public BookingServiceImpl(BookingRepository bookingRepository,
                               UserRepository userRepository,
-                              ItemRepository itemRepository) {
+                              ItemRepository itemRepository,
+                              UserExistenceCache userExistenceCache,
+                              NdjsonWriter ndjsonWriter) {
         this.bookingRepository = bookingRepository;
         this.userRepository = userRepository;
         this.itemRepository = itemRepository;
+        this.userExistenceCache = userExistenceCache;
+        this.ndjsonWriter = ndjsonWriter;
     }
 
     @Override
+    @Transactional
     public BookingDto createBooking(BookingDto bookingDto, Long userId) {
         if (userId == null) {
             throw new BlankFieldException("Заголовок X-Sharer-User-Id не должен быть пустым");
         }
 
-        if (bookingDto.getEnd().isBefore(bookingDto.getStart())) {
-            throw new BookingDateException("Дата конца бронирования раньше, чем дата начала бронирования");
-        }
-
-        if (bookingDto.getEnd().isEqual(bookingDto.getStart())) {
-            throw new BookingDateException("Дата конца бронирования совпадает с датой начала бронирования");
-        }
+        checkDates(bookingDto);
 
-        Item item = itemRepository.findById(bookingDto.getItemId()).orElseThrow(() ->
+        Item item = itemRepository.findByIdForUpdate(bookingDto.getItemId()).orElseThrow(() ->
                 new NotFoundException("Вещь с идентификатором " + bookingDto.getItemId() + " не найдена."));
 
         if (!item.isAvailable()) {
@@ -64,45 +82,205 @@ public class BookingServiceImpl implements BookingService {
             throw new NotFoundException("Пользователь не может бронировать свою вещь");
         }
 
+        if (bookingRepository.existsOverlapping(item.getId(), bookingDto.getStart(), bookingDto.getEnd())) {
+            throw new NotAvailableException("Вещь уже забронирована на эти даты");
+        }
+
         Booking booking = BookingMapper.toBooking(bookingDto, user, item);
 
         return BookingMapper.toBookingDto(bookingRepository.save(booking));
     }
 
+    /**
+     * Creates every valid entry with the same checks as {@link #createBooking}, but with one query for the
+     * booker, one locking query for all items and one for the overlapping bookings, and saves the accepted
+     * entries with batched inserts. Entries are checked in order, so a later entry that overlaps an earlier
+     * accepted one fails. Results are returned in the order of the entries.
+     */
     @Override
+    @Transactional
+    public List<BookingBatchResult> createBookings(List<BookingDto> bookingDtos, Long userId) {
+        if (userId == null) {
+            throw new BlankFieldException("Заголовок X-Sharer-User-Id не должен быть пустым");
+        }
+
+        User user = userRepository.findById(userId).orElseThrow(() ->
+                new NotFoundException("Пользователь с идентификатором " + userId + " не найден."));
+
+        Set<Long> itemIds = bookingDtos.stream()
+                .map(BookingDto::getItemId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, Item> items = new HashMap<>();
+        Map<Long, List<Booking>> taken = new HashMap<>();
+        if (!itemIds.isEmpty()) {
+            itemRepository.findAllByIdForUpdate(itemIds).forEach(item -> items.put(item.getId(), item));
+
+            LocalDateTime minStart = bookingDtos.stream().map(BookingDto::getStart).min(Comparator.naturalOrder()).get();
+            LocalDateTime maxEnd = bookingDtos.stream().map(BookingDto::getEnd).max(Comparator.naturalOrder()).get();
+            bookingRepository.findOverlapping(itemIds, minStart, maxEnd).forEach(booking ->
+                    taken.computeIfAbsent(booking.getItem().getId(), id -> new ArrayList<>()).add(booking));
+        }
+
+        List<BookingBatchResult> results = new ArrayList<>(bookingDtos.size());
+        List<Booking> accepted = new ArrayList<>();
+        List<Integer> acceptedIndexes = new ArrayList<>();
+        for (BookingDto bookingDto : bookingDtos) {
+            try {
+                checkDates(bookingDto);
+
+                Item item = items.get(bookingDto.getItemId());
+                if (item == null) {
+                    throw new NotFoundException("Вещь с идентификатором " + bookingDto.getItemId() + " не найдена.");
+                }
+
+                if (!item.isAvailable()) {
+                    throw new NotAvailableException("Вещь недоступна");
+                }
+
+                if (userId.equals(item.getOwner().getId())) {
+                    throw new NotFoundException("Пользователь не может бронировать свою вещь");
+                }
+
+                List<Booking> itemBookings = taken.computeIfAbsent(item.getId(), id -> new ArrayList<>());
+                if (itemBookings.stream().anyMatch(booking -> booking.getStart().isBefore(bookingDto.getEnd())
+                        && booking.getEnd().isAfter(bookingDto.getStart()))) {
+                    throw new NotAvailableException("Вещь уже забронирована на эти даты");
+                }
+
+                Booking booking = BookingMapper.toBooking(bookingDto, user, item);
+                itemBookings.add(booking);
+                accepted.add(booking);
+                acceptedIndexes.add(results.size());
+                results.add(null);
+            } catch (NotFoundException e) {
+                results.add(BookingBatchResult.failed(HttpStatus.NOT_FOUND, e.getMessage()));
+            } catch (NotAvailableException | BookingDateException e) {
+                results.add(BookingBatchResult.failed(HttpStatus.BAD_REQUEST, e.getMessage()));
+            }
+        }
+
+        List<Booking> saved = bookingRepository.saveAll(accepted);
+        for (int i = 0; i < saved.size(); i++) {
+            results.set(acceptedIndexes.get(i), BookingBatchResult.created(BookingMapper.toBookingDto(saved.get(i))));
+        }
+
+        return results;
+    }
+
+    private void checkDates(BookingDto bookingDto) {
+        if (bookingDto.getEnd().isBefore(bookingDto.getStart())) {
+            throw new BookingDateException("Дата конца бронирования раньше, чем дата начала бронирования");
+        }
+
+        if (bookingDto.getEnd().isEqual(bookingDto.getStart())) {
+            throw new BookingDateException("Дата конца бронирования совпадает с датой начала бронирования");
+        }
+    }
+
+    @Override
+    @Transactional
     public BookingDto approveBooking(Long id, Long ownerId, Boolean approved) {
         if (ownerId == null) {
             throw new BlankFieldException("Заголовок X-Sharer-User-Id не должен быть пустым");
         }
-        User user = userRepository.findById(ownerId).orElseThrow(() ->
-                new NotFoundException("Пользователь с идентификатором " + ownerId + " не найден."));
 
-        Booking bookingToUpdate = bookingRepository.findById(id).orElseThrow(() ->
-                new NotFoundException("Бронирование с идентификатором " + id + " не найдено."));
+        BookingStatus status = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        if (bookingRepository.updateStatusOfOwnerBooking(id, ownerId, BookingStatus.WAITING, status, LocalDateTime.now()) == 0) {
+            throw approveFailure(id, ownerId);
+        }
+
+        return BookingMapper.toBookingDto(bookingRepository.findWithDetailsById(id).orElseThrow(() ->
+                new NotFoundException("Бронирование с идентификатором " + id + " не найдено.")));
+    }
+
+    /**
+     * Decides all waiting bookings among {@code ids} that belong to the owner's items with one update, then reads
+     * them back with one query. The waiting bookings are locked first, so the result tells which of them this call
+     * decided. Returns one outcome per requested id, in request order: the decided booking, or the error
+     * {@link #approveBooking} would have returned for it, including for a booking a concurrent call decided first.
+     */
+    @Override
+    @Transactional
+    public List<BookingBatchResult> approveBookings(List<Long> ids, Long ownerId, Boolean approved) {
+        if (ownerId == null) {
+            throw new BlankFieldException("Заголовок X-Sharer-User-Id не должен быть пустым");
+        }
+        if (!userExistenceCache.exists(ownerId)) {
+            throw new NotFoundException("Пользователь с идентификатором " + ownerId + " не найден.");
+        }
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
 
-        if (!ownerId.equals(bookingToUpdate.getItem().getOwner().getId())) {
-            throw new NotFoundException("Бронирование может менять только его владелец");
+        BookingStatus status = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        Set<Long> waitingIds = new HashSet<>(
+                bookingRepository.findIdsOfOwnerBookingsForUpdate(ids, ownerId, BookingStatus.WAITING));
+        if (!waitingIds.isEmpty()) {
+            int updated = bookingRepository.updateStatusOfOwnerBookings(waitingIds, ownerId, BookingStatus.WAITING,
+                    status, LocalDateTime.now());
+            log.debug("Статус {} установлен для {} бронирований владельца id={}", status, updated, ownerId);
         }
 
-        if (approved) {
-            if (bookingToUpdate.getStatus().equals(BookingStatus.APPROVED)) {
-                throw new ApproveRequestException("Бронирование уже подтверждено");
+        Map<Long, Booking> bookings = bookingRepository.findByIdInAndItemOwnerIdOrderById(ids, ownerId)
+                .stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+        List<BookingBatchResult> results = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Booking booking = bookings.get(id);
+            if (booking == null) {
+                results.add(BookingBatchResult.failed(HttpStatus.NOT_FOUND,
+                        "Бронирование с идентификатором " + id + " не найдено."));
+            } else if (waitingIds.contains(id)) {
+                results.add(BookingBatchResult.decided(BookingMapper.toBookingDto(booking)));
+            } else {
+                results.add(BookingBatchResult.failed(HttpStatus.BAD_REQUEST, alreadyDecided(booking.getStatus())));
             }
-            bookingToUpdate.setStatus(BookingStatus.APPROVED);
-        } else {
-            bookingToUpdate.setStatus(BookingStatus.REJECTED);
         }
 
-        return BookingMapper.toBookingDto(bookingRepository.save(bookingToUpdate));
+        return results;
+    }
+
+    /**
+     * Explains why the conditional update changed nothing. Runs only on the failure path.
+     */
+    private RuntimeException approveFailure(Long id, Long ownerId) {
+        if (!userExistenceCache.exists(ownerId)) {
+            return new NotFoundException("Пользователь с идентификатором " + ownerId + " не найден.");
+        }
+
+        Booking booking = bookingRepository.findById(id).orElse(null);
+        if (booking == null) {
+            return new NotFoundException("Бронирование с идентификатором " + id + " не найдено.");
+        }
+
+        if (!ownerId.equals(booking.getItem().getOwner().getId())) {
+            return new NotFoundException("Бронирование может менять только его владелец");
+        }
+
+        return new ApproveRequestException(alreadyDecided(booking.getStatus()));
+    }
+
+    private static String alreadyDecided(BookingStatus status) {
+        switch (status) {
+            case APPROVED:
+                return "Бронирование уже подтверждено";
+            case REJECTED:
+                return "Бронирование уже отклонено";
+            default:
+                return "Бронирование отменено";
+        }
     }
 
     @Override
+    @Transactional(readOnly = true)
     public BookingDto getBookingById(Long id, Long userId) {
         if (userId == null) {
             throw new BlankFieldException("Заголовок X-Sharer-User-Id не должен быть пустым");
         }
-        User user = userRepository.findById(userId).orElseThrow(() ->
-                new NotFoundException("Пользователь с идентификатором " + userId + " не найден."));
+        if (!userExistenceCache.exists(userId)) {
+            throw new NotFoundException("Пользователь с идентификатором " + userId + " не найден.");
+        }
 
         Booking booking = bookingRepository.findById(id).orElseThrow(() ->
                 new NotFoundException("Бронирование с идентификатором " + id + " не найдено."));
@@ -116,26 +294,24 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<BookingDto> getUserBookings(Long bookerId, String state, int from, int size) {
         PageRequest page = PageRequest.of(from > 0 ? from / size : 0, size);
 
-        User booker = userRepository.findById(bookerId).orElseThrow(() ->
-                new NotFoundException("Пользователь с идентификатором " + bookerId + " не найден."));
+        if (!userExistenceCache.exists(bookerId)) {
+            throw new NotFoundException("Пользователь с идентификатором " + bookerId + " не найден.");
+        }
 
-        Page<Booking> bookings;
+        Slice<Booking> bookings;
         LocalDateTime now = LocalDateTime.now();
         switch (state) {
             case "ALL":
                 bookings = bookingRepository.findByBookerIdOrderByEndDesc(bookerId, page);
                 break;
             case "CURRENT":
-                bookings = bookingRepository.findByBookerIdAndStartIsBeforeAndEndIsAfterOrderByEndDesc(bookerId, now, now, page);
-                break;
             case "PAST":
-                bookings = bookingRepository.findByBookerIdAndEndIsBeforeOrderByEndDesc(bookerId, now, page);
-                break;
             case "FUTURE":
-                bookings = bookingRepository.findByBookerIdAndStartIsAfterOrderByEndDesc(bookerId, now, page);
+                bookings = bookingRepository.findBookerBookingsInPhase(bookerId, BookingPhase.valueOf(state), now, page);
                 break;
             case "WAITING":
             case "REJECTED":
@@ -152,26 +328,24 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<BookingDto> getOwnerBookings(Long ownerId, String state, int from, int size) {
         PageRequest page = PageRequest.of(from > 0 ? from / size : 0, size);
 
-        User owner = userRepository.findById(ownerId).orElseThrow(() ->
-                new NotFoundException("Пользователь с идентификатором " + ownerId + " не найден."));
+        if (!userExistenceCache.exists(ownerId)) {
+            throw new NotFoundException("Пользователь с идентификатором " + ownerId + " не найден.");
+        }
 
-        Page<Booking> bookings;
+        Slice<Booking> bookings;
         LocalDateTime now = LocalDateTime.now();
         switch (state) {
             case "ALL":
                 bookings = bookingRepository.findByItemOwnerIdOrderByEndDesc(ownerId, page);
                 break;
             case "CURRENT":
-                bookings = bookingRepository.findByItemOwnerIdAndStartIsBeforeAndEndIsAfterOrderByEndDesc(ownerId, now, now, page);
-                break;
             case "PAST":
-                bookings = bookingRepository.findByItemOwnerIdAndEndIsBeforeOrderByEndDesc(ownerId, now, page);
-                break;
             case "FUTURE":
-                bookings = bookingRepository.findByItemOwnerIdAndStartIsAfterOrderByEndDesc(ownerId, now, page);
+                bookings = bookingRepository.findOwnerBookingsInPhase(ownerId, BookingPhase.valueOf(state), now, page);
                 break;
             case "WAITING":
             case "REJECTED":
@@ -186,4 +360,51 @@ public class BookingServiceImpl implements BookingService {
                 .map(BookingMapper::toBookingDto)
                 .collect(Collectors.toList());
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<BookingDto> getUserBookingsAfter(Long bookerId, String state, String after, int size) {
+        if (!userExistenceCache.exists(bookerId)) {
+            throw new NotFoundException("Пользователь с идентификатором " + bookerId + " не найден.");
+        }
+
+        return bookingRepository.findBookerBookingsAfter(bookerId, toBookingState(state), LocalDateTime.now(),
+                        toBookingCursor(after), size)
+                .map(BookingMapper::toBookingDto);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<BookingDto> getOwnerBookingsAfter(Long ownerId, String state, String after, int size) {
+        if (!userExistenceCache.exists(ownerId)) {
+            throw new NotFoundException("Пользователь с идентификатором " + ownerId + " не найден.");
+        }
+
+        return bookingRepository.findOwnerBookingsAfter(ownerId, toBookingState(state), LocalDateTime.now(),
+                        toBookingCursor(after), size)
+                .map(BookingMapper::toBookingDto);
+    }
+
+    @Override
+    public NdjsonExport exportOwnerBookings(Long ownerId, LocalDateTime since) {
+        if (!userExistenceCache.exists(ownerId)) {
+            throw new NotFoundException("Пользователь с идентификатором " + ownerId + " не найден.");
+        }
+
+        return ndjsonWriter.export(() -> since == null
+                ? bookingRepository.streamOwnerBookings(ownerId)
+                : bookingRepository.streamOwnerBookingsSince(ownerId, since.minus(NdjsonExport.SINCE_OVERLAP)));
+    }
+
+    private BookingState toBookingState(String state) {
+        try {
+            return BookingState.valueOf(state);
+        } catch (IllegalArgumentException e) {
+            throw new UnsupportedStatusException("Такой статус не поддерживается");
+        }
+    }
+
+    private BookingCursor toBookingCursor(String after) {
+        return after == null || after.isBlank() ? null : BookingCursor.parse(after);
+    }
 }
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+
+/**
+ * Deferred NDJSON export, written to the response once the request has been validated.
+ */
+@FunctionalInterface
+public interface NdjsonExport {
+    /**
+     * How far before {@code since} an incremental export starts reading. {@code updated_at} is stamped from
+     * the writer's clock at flush, so a row can commit after an export that already read past its timestamp;
+     * the next export writes it again together with rows already sent, and clients deduplicate by id.
+     */
+    Duration SINCE_OVERLAP = Duration.ofMinutes(1);
+
+    /**
+     * Writes the rows and returns how many were written.
+     */
+    long writeTo(OutputStream out) throws IOException;
+}
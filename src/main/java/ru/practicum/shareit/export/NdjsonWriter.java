@@ -0,0 +1,74 @@
+package ru.practicum.shareit.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Writes rows as newline-delimited JSON straight to the output, one generator for the whole stream,
+ * so memory use does not depend on the number of rows.
+ */
+@Component
+public class NdjsonWriter {
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter writer;
+    private final TransactionTemplate readOnlyTransaction;
+
+    @Autowired
+    public NdjsonWriter(ObjectMapper objectMapper, PlatformTransactionManager transactionManager) {
+        this.objectMapper = objectMapper;
+        this.writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Returns an export that opens the row stream in a read-only transaction of its own,
+     * since the response body is written after the controller method has returned.
+     */
+    public NdjsonExport export(Supplier<? extends Stream<?>> rows) {
+        return out -> {
+            try {
+                Long count = readOnlyTransaction.execute(status -> {
+                    try (Stream<?> stream = rows.get()) {
+                        return write(stream, out);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                return count == null ? 0 : count;
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+    }
+
+    public long write(Stream<?> rows, OutputStream out) throws IOException {
+        long count = 0;
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+
+            Iterator<?> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                writer.writeValue(generator, iterator.next());
+                generator.writeRaw('\n');
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,43 @@
+package ru.practicum.shareit.export;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvFactory;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads rows one at a time from a JSON array, newline-delimited JSON or CSV with a header line,
+ * so memory use does not depend on the number of rows. CSV columns are matched to properties by header name.
+ */
+@Component
+public class RowReader {
+    public static final String TEXT_CSV_VALUE = "text/csv";
+    public static final MediaType TEXT_CSV = MediaType.parseMediaType(TEXT_CSV_VALUE);
+
+    private final ObjectMapper objectMapper;
+    private final ObjectMapper csvMapper;
+
+    @Autowired
+    public RowReader(ObjectMapper objectMapper, Jackson2ObjectMapperBuilder objectMapperBuilder) {
+        this.objectMapper = objectMapper;
+        this.csvMapper = objectMapperBuilder.factory(new CsvFactory()).build();
+    }
+
+    public <T> MappingIterator<T> read(InputStream in, MediaType contentType, Class<T> type) throws IOException {
+        if (TEXT_CSV.isCompatibleWith(contentType)) {
+            return csvMapper.readerFor(type)
+                    .with(CsvSchema.emptySchema().withHeader())
+                    .with(CsvParser.Feature.EMPTY_STRING_AS_NULL)
+                    .readValues(in);
+        }
+        return objectMapper.readerFor(type).readValues(in);
+    }
+}
@@ -48,6 +48,13 @@ public class ErrorHandler {
         return new ErrorResponse(HttpStatus.BAD_REQUEST.toString(), e.getMessage());
     }
 
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST) //400
+    public ErrorResponse handleInvalidCursorException(final InvalidCursorException e) {
+        log.info("{} {}", HttpStatus.BAD_REQUEST, e.getMessage());
+        return new ErrorResponse(HttpStatus.BAD_REQUEST.toString(), e.getMessage());
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.FORBIDDEN) //403
     public ErrorResponse handleForbiddenException(final ForbiddenException e) {
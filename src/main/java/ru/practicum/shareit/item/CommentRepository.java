@@ -1,10 +1,19 @@
 package ru.practicum.shareit.item;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.item.model.Comment;
 
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
+    @Query("select c from Comment as c where c.item.id = ?1")
     List<Comment> findAllCommentByItemId(Long id);
+
+    @Query("select c " +
+            "from Comment as c " +
+            "join fetch c.item " +
+            "join fetch c.author " +
+            "where c.item.id in ?1")
+    List<Comment> findAllByItemIdIn(List<Long> itemIds);
 }
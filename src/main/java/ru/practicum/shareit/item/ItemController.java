@@ -1,16 +1,30 @@
 package ru.practicum.shareit.item;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.export.NdjsonExport;
+import ru.practicum.shareit.export.RowReader;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportResult;
 import ru.practicum.shareit.item.dto.ItemWithBookingDto;
+import ru.practicum.shareit.item.service.ItemImporter;
 import ru.practicum.shareit.item.service.ItemService;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Pattern;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -21,10 +35,14 @@ import java.util.List;
 @RequestMapping("/items")
 @Slf4j
 public class ItemController {
+    private static final int MAX_PAGE_SIZE = 100;
+
     public final ItemService itemService;
+    private final ItemImporter itemImporter;
 
-    public ItemController(ItemService itemService) {
+    public ItemController(ItemService itemService, ItemImporter itemImporter) {
         this.itemService = itemService;
+        this.itemImporter = itemImporter;
     }
 
     @PostMapping
@@ -37,6 +55,23 @@ public class ItemController {
         return result;
     }
 
+    /**
+     * Creates items from a JSON array, NDJSON or CSV with a {@code name,description,available,requestId} header.
+     * The body is read row by row while it arrives; the response lists the rows that were skipped.
+     */
+    @PostMapping(path = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE,
+            RowReader.TEXT_CSV_VALUE})
+    public ItemImportResult importItems(@RequestHeader("X-Sharer-User-Id") Long ownerId,
+                                        HttpServletRequest request) throws IOException {
+        log.info("Попытка импорта вещей, владелец id={}, формат {}", ownerId, request.getContentType());
+        ItemImportResult result = itemImporter.importItems(ownerId, request.getInputStream(),
+                MediaType.parseMediaType(request.getContentType()));
+        log.info("Импортированы вещи владельца id={}. Создано: {}, ошибок: {}",
+                ownerId, result.getImported(), result.getFailed());
+
+        return result;
+    }
+
     @PatchMapping("/{id}")
     public ItemDto updateItem(@RequestBody ItemDto itemDto,
                               @PathVariable Long id,
@@ -51,9 +86,10 @@ public class ItemController {
     @GetMapping("/{id}")
     public ItemWithBookingDto getItem(@PathVariable Long id,
                                       @RequestHeader("X-Sharer-User-Id") Long ownerId) {
-        log.info("Попытка получения вещи id={}", id);
+        log.debug("Попытка получения вещи id={}", id);
         ItemWithBookingDto result = itemService.getItemById(id, ownerId);
-        log.info("Получена вещь: {}", result);
+        log.info("Получена вещь id={}", result.getId());
+        log.debug("Вещь: {}", result);
         return result;
     }
 
@@ -61,7 +97,7 @@ public class ItemController {
     public List<ItemWithBookingDto> listItemsOfUser(@RequestHeader("X-Sharer-User-Id") Long ownerId,
                                                     @RequestParam(defaultValue = "0") @PositiveOrZero int from,
                                                     @RequestParam(defaultValue = "10") @Positive int size) {
-        log.info("Попытка получения списка вещей владельца id={}", ownerId);
+        log.debug("Попытка получения списка вещей владельца id={}", ownerId);
         List<ItemWithBookingDto> result = itemService.listItemsOfUser(ownerId, from, size);
         log.info("Получен список вещей. Количество: {}", result.size());
         return result;
@@ -70,15 +106,52 @@ public class ItemController {
     @GetMapping("/search")
     public List<ItemDto> searchItem(@RequestParam String text,
                                     @RequestHeader("X-Sharer-User-Id") Long ownerId,
+                                    @RequestParam(required = false) @Pattern(regexp = "relevance") String sort,
                                     @RequestParam(defaultValue = "0") @PositiveOrZero int from,
-                                    @RequestParam(defaultValue = "10") @Positive int size) {
-        log.info("Попытка поиска вещи по запросу: {}", text);
-        List<ItemDto> result = itemService.searchItem(text, from, size);
+                                    @RequestParam(defaultValue = "10") @Positive @Max(MAX_PAGE_SIZE) int size) {
+        log.debug("Попытка поиска вещи по запросу: {}, сортировка={}", text, sort);
+        List<ItemDto> result = sort == null
+                ? itemService.searchItem(text, from, size)
+                : itemService.searchItemByRelevance(text, from, size);
         log.info("Получен список вещей. Количество: {}", result.size());
 
         return result;
     }
 
+    /**
+     * Streams the owner's items as NDJSON, one item per line. With {@code since}, only items created or
+     * changed at or after that moment, less {@link NdjsonExport#SINCE_OVERLAP}, are written, so a client
+     * can pull increments and deduplicates them by id.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportOwnerItems(
+            @RequestHeader("X-Sharer-User-Id") Long ownerId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since) {
+        log.info("Попытка выгрузки вещей владельца id={}, начиная с {}", ownerId, since);
+        NdjsonExport export = itemService.exportOwnerItems(ownerId, since);
+        StreamingResponseBody body = out -> {
+            long count = export.writeTo(out);
+            log.info("Выгружены вещи владельца id={}. Количество: {}", ownerId, count);
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @GetMapping("/{id}/availability")
+    public ItemAvailabilityDto getItemAvailability(@PathVariable Long id,
+                                                   @RequestHeader("X-Sharer-User-Id") Long userId,
+                                                   @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                   LocalDateTime from,
+                                                   @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                   LocalDateTime to) {
+        log.debug("Попытка проверки доступности вещи id={} с {} по {}", id, from, to);
+        ItemAvailabilityDto result = itemService.getItemAvailability(id, from, to);
+        log.info("Получена доступность вещи: {}", result);
+        return result;
+    }
+
     @PostMapping("/{itemId}/comment")
     public CommentDto addComment(@Valid @RequestBody CommentDto comment,
                                  @RequestHeader("X-Sharer-User-Id") Long userId,
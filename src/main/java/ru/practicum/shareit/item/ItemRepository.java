@@ -1,24 +1,88 @@
 package ru.practicum.shareit.item;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import ru.practicum.shareit.item.dto.ItemExportDto;
 import ru.practicum.shareit.item.model.Item;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
-    Page<Item> findAllByOwnerId(Long ownerId, Pageable page);
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Item as i where i.id = ?1")
+    Optional<Item> findByIdForUpdate(Long id);
+
+    /**
+     * Locks the items in id order, so that concurrent batches cannot deadlock on each other.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Item as i where i.id in ?1 order by i.id")
+    List<Item> findAllByIdForUpdate(Collection<Long> ids);
+
+    Slice<Item> findAllByOwnerId(Long ownerId, Pageable page);
 
     @Query("select i " +
             "from Item as i " +
             "where (lower(i.name) like lower(concat('%', ?1,'%')) " +
             "or lower(i.description) like lower(concat('%', ?1,'%'))) " +
             "and i.available = true")
-    Page<Item> searchItem(String text, Pageable page);
+    Slice<Item> searchItem(String text, Pageable page);
 
+    @Query("select i " +
+            "from Item as i " +
+            "left join fetch i.request as r " +
+            "left join fetch r.requestor")
+    Slice<Item> findAllWithRequest(Pageable page);
+
+    @Query("select i " +
+            "from Item as i " +
+            "left join fetch i.request as r " +
+            "left join fetch r.requestor " +
+            "where i.updatedAt >= ?1")
+    Slice<Item> findAllWithRequestUpdatedSince(LocalDateTime since, Pageable page);
+
+    @Query("select i from Item as i where i.request.id in ?1")
     List<Item> findAllByRequestIdIn(List<Long> requestIds);
 
+    @Query("select i from Item as i where i.request.id = ?1")
     List<Item> findAllByRequestId(Long id);
+
+    /**
+     * Reads the owner's items through a database cursor in id order.
+     * Must be consumed and closed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select new ru.practicum.shareit.item.dto.ItemExportDto(" +
+            "i.id, i.name, i.description, i.available, i.owner.id, r.id, i.updatedAt) " +
+            "from Item as i " +
+            "left join i.request as r " +
+            "where i.owner.id = ?1 " +
+            "order by i.id")
+    Stream<ItemExportDto> streamOwnerItems(Long ownerId);
+
+    /**
+     * Reads the owner's items created or changed at or after {@code since}, in (updatedAt, id) order.
+     * Ids are not a change cursor: they come from pooled sequence blocks, so a later insert can get a
+     * lower id. Must be consumed and closed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select new ru.practicum.shareit.item.dto.ItemExportDto(" +
+            "i.id, i.name, i.description, i.available, i.owner.id, r.id, i.updatedAt) " +
+            "from Item as i " +
+            "left join i.request as r " +
+            "where i.owner.id = ?1 and i.updatedAt >= ?2 " +
+            "order by i.updatedAt, i.id")
+    Stream<ItemExportDto> streamOwnerItemsSince(Long ownerId, LocalDateTime since);
 }
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * Flat item row for bulk export.
+ */
+@Data
+@ToString
+@AllArgsConstructor
+public class ItemExportDto {
+    private Long id;
+    private String name;
+    private String description;
+    private boolean available;
+    private Long ownerId;
+    private Long requestId;
+    private LocalDateTime updatedAt;
+}
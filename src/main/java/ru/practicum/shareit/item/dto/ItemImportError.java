@@ -0,0 +1,12 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ItemImportError {
+    // номер записи, начиная с 1
+    private long row;
+    private String description;
+}
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Summary of an import. Only the first errors are listed, {@code failed} counts all of them.
+ */
+@Data
+@AllArgsConstructor
+public class ItemImportResult {
+    private long imported;
+    private long failed;
+    private List<ItemImportError> errors;
+}
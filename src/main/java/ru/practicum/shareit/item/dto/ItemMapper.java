@@ -6,7 +6,10 @@ import ru.practicum.shareit.request.dto.ItemRequestMapper;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class ItemMapper {
     public static ItemDto toItemDto(Item item) {
@@ -55,6 +58,15 @@ public class ItemMapper {
         );
     }
 
+    public static Map<Long, List<ItemResponseDto>> groupByRequestId(List<Item> items) {
+        Map<Long, List<ItemResponseDto>> result = new HashMap<>();
+        for (Item item : items) {
+            result.computeIfAbsent(item.getRequest().getId(), requestId -> new ArrayList<>())
+                    .add(toItemResponseDto(item));
+        }
+        return result;
+    }
+
     public static Item fillItem(ItemDto itemDto, Item item) {
         Item result = new Item(
                 itemDto.getId() == null ? item.getId() : itemDto.getId(),
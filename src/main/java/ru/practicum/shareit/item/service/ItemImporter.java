@@ -0,0 +1,189 @@
+package ru.practicum.shareit.item.service;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.exc.InvalidDefinitionException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.export.RowReader;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportError;
+import ru.practicum.shareit.item.dto.ItemImportResult;
+import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserExistenceCache;
+
+import javax.persistence.EntityManager;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Creates items of one owner from a JSON, NDJSON or CSV stream of rows. Rows are validated as they are read and saved in
+ * chunks of {@value #CHUNK_SIZE}, each in a transaction of its own with one query for the referenced
+ * requests, and the persistence context is cleared after each chunk, so memory use does not depend on
+ * the size of the import even when the request keeps one EntityManager open. Invalid rows are skipped
+ * and reported; chunks committed before a malformed part of the input stay imported.
+ */
+@Service
+@Slf4j
+public class ItemImporter {
+    private static final int CHUNK_SIZE = 500;
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemSearchIndex itemSearchIndex;
+    private final UserExistenceCache userExistenceCache;
+    private final RowReader rowReader;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+
+    @Autowired
+    public ItemImporter(ItemRepository itemRepository,
+                        UserRepository userRepository,
+                        ItemRequestRepository itemRequestRepository,
+                        ItemSearchIndex itemSearchIndex,
+                        UserExistenceCache userExistenceCache,
+                        RowReader rowReader,
+                        Validator validator,
+                        PlatformTransactionManager transactionManager,
+                        EntityManager entityManager) {
+        this.itemRepository = itemRepository;
+        this.userRepository = userRepository;
+        this.itemRequestRepository = itemRequestRepository;
+        this.itemSearchIndex = itemSearchIndex;
+        this.userExistenceCache = userExistenceCache;
+        this.rowReader = rowReader;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.entityManager = entityManager;
+    }
+
+    public ItemImportResult importItems(Long ownerId, InputStream in, MediaType contentType) {
+        if (!userExistenceCache.exists(ownerId)) {
+            throw new NotFoundException("Пользователь с идентификатором " + ownerId + " не найден.");
+        }
+
+        Progress progress = new Progress();
+        List<Row> chunk = new ArrayList<>(CHUNK_SIZE);
+        long number = 1;
+        try (MappingIterator<ItemDto> rows = rowReader.read(in, contentType, ItemDto.class)) {
+            for (; rows.hasNextValue(); number++) {
+                ItemDto itemDto;
+                try {
+                    itemDto = rows.nextValue();
+                } catch (InvalidDefinitionException e) {
+                    throw e;
+                } catch (JsonMappingException e) {
+                    progress.fail(number, "Некорректное значение: " + e.getOriginalMessage());
+                    continue;
+                }
+
+                Set<ConstraintViolation<ItemDto>> violations = validator.validate(itemDto);
+                if (!violations.isEmpty()) {
+                    progress.fail(number, violations.stream()
+                            .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                            .sorted()
+                            .collect(Collectors.joining(", ")));
+                    continue;
+                }
+
+                itemDto.setId(null);
+                chunk.add(new Row(number, itemDto));
+                if (chunk.size() == CHUNK_SIZE) {
+                    saveChunk(ownerId, chunk, progress);
+                    chunk.clear();
+                }
+            }
+        } catch (InvalidDefinitionException e) {
+            throw new IllegalStateException("Строки импорта не читаются как " + ItemDto.class.getSimpleName(), e);
+        } catch (IOException e) {
+            progress.fail(number, "Некорректный формат данных, импорт остановлен: " + e.getMessage());
+        }
+        saveChunk(ownerId, chunk, progress);
+
+        return new ItemImportResult(progress.imported, progress.failed, progress.errors);
+    }
+
+    private void saveChunk(Long ownerId, List<Row> chunk, Progress progress) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        int saved = transactionTemplate.execute(status -> {
+            Set<Long> requestIds = chunk.stream()
+                    .map(row -> row.itemDto.getRequestId())
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toSet());
+            Map<Long, ItemRequest> requests = new HashMap<>();
+            if (!requestIds.isEmpty()) {
+                itemRequestRepository.findAllWithRequestorByIdIn(requestIds)
+                        .forEach(request -> requests.put(request.getId(), request));
+            }
+
+            User owner = userRepository.getReferenceById(ownerId);
+            List<Item> items = new ArrayList<>(chunk.size());
+            for (Row row : chunk) {
+                Long requestId = row.itemDto.getRequestId();
+                if (requestId != null && !requests.containsKey(requestId)) {
+                    progress.fail(row.number, "Запрос с идентификатором " + requestId + " не найден.");
+                    continue;
+                }
+                items.add(ItemMapper.toItem(row.itemDto, owner, requests.get(requestId)));
+            }
+
+            for (Item item : itemRepository.saveAll(items)) {
+                itemSearchIndex.indexAfterCommit(ItemMapper.toItemDto(item));
+            }
+            return items.size();
+        });
+        entityManager.clear();
+
+        progress.imported += saved;
+        log.info("Импорт вещей владельца id={}: создано {}, ошибок {}", ownerId, progress.imported, progress.failed);
+    }
+
+    private static class Row {
+        private final long number;
+        private final ItemDto itemDto;
+
+        Row(long number, ItemDto itemDto) {
+            this.number = number;
+            this.itemDto = itemDto;
+        }
+    }
+
+    private static class Progress {
+        private final List<ItemImportError> errors = new ArrayList<>();
+        private long imported;
+        private long failed;
+
+        void fail(long row, String description) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ItemImportError(row, description));
+            }
+        }
+    }
+}
@@ -0,0 +1,358 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory inverted index over item names and descriptions.
+ * Substring queries are answered from trigram postings and verified against the indexed text,
+ * so search never scans the items table. Relevance ordering uses BM25 with the name field boosted.
+ * <p>
+ * Every instance keeps its own copy. Changes made here are indexed on commit; changes made by other
+ * instances are picked up by {@link #refresh()}, which polls {@code items.updated_at}, so they become
+ * searchable within one refresh interval.
+ */
+@Component
+@Slf4j
+public class ItemSearchIndex {
+    private static final int GRAM_LENGTH = 3;
+    private static final int REBUILD_BATCH_SIZE = 1000;
+    /**
+     * How far before the previous refresh to re-read. {@code updated_at} is taken from the writer's clock
+     * at flush, so a row can commit after a refresh that already passed its timestamp.
+     */
+    private static final Duration REFRESH_OVERLAP = Duration.ofMinutes(1);
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final double NAME_WEIGHT = 2.0;
+    private static final double DESCRIPTION_WEIGHT = 1.0;
+
+    private final ItemRepository itemRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, IndexedItem> items = new HashMap<>();
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    private long totalNameLength;
+    private long totalDescriptionLength;
+    private volatile LocalDateTime refreshedAt;
+
+    @Autowired
+    public ItemSearchIndex(ItemRepository itemRepository) {
+        this.itemRepository = itemRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        int count = 0;
+        Slice<Item> slice = itemRepository.findAllWithRequest(
+                PageRequest.of(0, REBUILD_BATCH_SIZE, Sort.by("id")));
+
+        while (true) {
+            for (Item item : slice) {
+                indexIfAbsent(ItemMapper.toItemDto(item));
+                count++;
+            }
+            if (!slice.hasNext()) {
+                break;
+            }
+            slice = itemRepository.findAllWithRequest(slice.nextPageable());
+        }
+        refreshedAt = startedAt;
+
+        log.info("Поисковый индекс вещей построен. Количество: {}", count);
+    }
+
+    /**
+     * Re-indexes the items created or changed since the previous refresh, including by other instances.
+     * Does nothing until the index has been built.
+     */
+    @Scheduled(fixedDelayString = "${shareit.item-search.refresh-interval:PT10S}")
+    public void refresh() {
+        if (refreshedAt == null) {
+            return;
+        }
+
+        LocalDateTime startedAt = LocalDateTime.now();
+        LocalDateTime since = refreshedAt.minus(REFRESH_OVERLAP);
+        int count = 0;
+        Slice<Item> slice = itemRepository.findAllWithRequestUpdatedSince(since,
+                PageRequest.of(0, REBUILD_BATCH_SIZE, Sort.by("updatedAt", "id")));
+
+        while (true) {
+            for (Item item : slice) {
+                index(ItemMapper.toItemDto(item));
+                count++;
+            }
+            if (!slice.hasNext()) {
+                break;
+            }
+            slice = itemRepository.findAllWithRequestUpdatedSince(since, slice.nextPageable());
+        }
+        refreshedAt = startedAt;
+
+        log.debug("Поисковый индекс вещей обновлен. Количество: {}", count);
+    }
+
+    /**
+     * Indexes the item once the surrounding transaction commits, or immediately when there is none,
+     * so rolled back changes never become searchable.
+     */
+    public void indexAfterCommit(ItemDto itemDto) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    index(itemDto);
+                }
+            });
+        } else {
+            index(itemDto);
+        }
+    }
+
+    public void index(ItemDto itemDto) {
+        lock.writeLock().lock();
+        try {
+            put(itemDto);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<ItemDto> search(String text, int from, int size) {
+        String query = normalize(text);
+
+        lock.readLock().lock();
+        try {
+            return candidates(query)
+                    .stream()
+                    .map(items::get)
+                    .filter(item -> item.matches(query))
+                    .sorted(Comparator.comparing(item -> item.itemDto.getId()))
+                    .skip(from)
+                    .limit(size)
+                    .map(item -> item.itemDto)
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the page of best matches by relevance. Only the top {@code from + size} matches are kept
+     * in a bounded heap, so the full match set is never sorted.
+     */
+    public List<ItemDto> searchByRelevance(String text, int from, int size) {
+        String query = normalize(text);
+        long limit = (long) from + size;
+
+        lock.readLock().lock();
+        try {
+            Map<String, Double> idf = new HashMap<>();
+            for (String term : tokens(query)) {
+                idf.put(term, idf(term));
+            }
+
+            double averageNameLength = items.isEmpty() ? 0 : (double) totalNameLength / items.size();
+            double averageDescriptionLength = items.isEmpty() ? 0 : (double) totalDescriptionLength / items.size();
+
+            Comparator<ScoredItem> best = Comparator.comparingDouble((ScoredItem item) -> item.score)
+                    .reversed()
+                    .thenComparing(item -> item.item.itemDto.getId());
+            Collection<Long> candidates = candidates(query);
+            PriorityQueue<ScoredItem> heap = new PriorityQueue<>((int) Math.min(limit, candidates.size()) + 1,
+                    best.reversed());
+
+            for (Long id : candidates) {
+                IndexedItem item = items.get(id);
+                if (!item.matches(query)) {
+                    continue;
+                }
+                heap.add(new ScoredItem(item, item.score(idf, averageNameLength, averageDescriptionLength)));
+                if (heap.size() > limit) {
+                    heap.poll();
+                }
+            }
+
+            return heap
+                    .stream()
+                    .sorted(best)
+                    .skip(from)
+                    .map(item -> item.item.itemDto)
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void indexIfAbsent(ItemDto itemDto) {
+        lock.writeLock().lock();
+        try {
+            if (!items.containsKey(itemDto.getId())) {
+                put(itemDto);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void put(ItemDto itemDto) {
+        IndexedItem previous = items.get(itemDto.getId());
+        if (previous != null) {
+            totalNameLength -= previous.nameTokens.size();
+            totalDescriptionLength -= previous.descriptionTokens.size();
+            for (String gram : previous.grams()) {
+                Set<Long> ids = postings.get(gram);
+                ids.remove(itemDto.getId());
+                if (ids.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+
+        IndexedItem item = new IndexedItem(itemDto);
+        items.put(itemDto.getId(), item);
+        totalNameLength += item.nameTokens.size();
+        totalDescriptionLength += item.descriptionTokens.size();
+        for (String gram : item.grams()) {
+            postings.computeIfAbsent(gram, key -> new HashSet<>()).add(itemDto.getId());
+        }
+    }
+
+    private Collection<Long> candidates(String query) {
+        if (query.length() < GRAM_LENGTH) {
+            return items.keySet();
+        }
+
+        List<Set<Long>> lists = new ArrayList<>();
+        for (String gram : grams(query)) {
+            Set<Long> ids = postings.get(gram);
+            if (ids == null) {
+                return List.of();
+            }
+            lists.add(ids);
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+
+        List<Long> result = new ArrayList<>();
+        for (Long id : lists.get(0)) {
+            if (lists.stream().allMatch(ids -> ids.contains(id))) {
+                result.add(id);
+            }
+        }
+        return result;
+    }
+
+    private double idf(String term) {
+        long documentFrequency = candidates(term)
+                .stream()
+                .map(items::get)
+                .filter(item -> item.contains(term))
+                .count();
+
+        return Math.log(1 + (items.size() - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> result = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            result.add(text.substring(i, i + GRAM_LENGTH));
+        }
+        return result;
+    }
+
+    private static List<String> tokens(String text) {
+        return Arrays.stream(TOKEN_SEPARATOR.split(text))
+                .filter(token -> !token.isEmpty())
+                .collect(Collectors.toList());
+    }
+
+    private static double bm25(List<String> tokens, String term, double averageLength) {
+        long termFrequency = tokens
+                .stream()
+                .filter(token -> token.contains(term))
+                .count();
+
+        if (termFrequency == 0) {
+            return 0;
+        }
+
+        double lengthNorm = averageLength > 0 ? tokens.size() / averageLength : 1;
+        return termFrequency * (K1 + 1) / (termFrequency + K1 * (1 - B + B * lengthNorm));
+    }
+
+    private static class IndexedItem {
+        private final ItemDto itemDto;
+        private final String name;
+        private final String description;
+        private final List<String> nameTokens;
+        private final List<String> descriptionTokens;
+
+        IndexedItem(ItemDto itemDto) {
+            this.itemDto = itemDto;
+            this.name = normalize(itemDto.getName());
+            this.description = normalize(itemDto.getDescription());
+            this.nameTokens = tokens(name);
+            this.descriptionTokens = tokens(description);
+        }
+
+        boolean matches(String query) {
+            return Boolean.TRUE.equals(itemDto.getAvailable()) && contains(query);
+        }
+
+        boolean contains(String query) {
+            return name.contains(query) || description.contains(query);
+        }
+
+        double score(Map<String, Double> idf, double averageNameLength, double averageDescriptionLength) {
+            double score = 0;
+            for (Map.Entry<String, Double> term : idf.entrySet()) {
+                score += term.getValue() * (NAME_WEIGHT * bm25(nameTokens, term.getKey(), averageNameLength)
+                        + DESCRIPTION_WEIGHT * bm25(descriptionTokens, term.getKey(), averageDescriptionLength));
+            }
+            return score;
+        }
+
+        Set<String> grams() {
+            Set<String> result = ItemSearchIndex.grams(name);
+            result.addAll(ItemSearchIndex.grams(description));
+            return result;
+        }
+    }
+
+    private static class ScoredItem {
+        private final IndexedItem item;
+        private final double score;
+
+        ScoredItem(IndexedItem item, double score) {
+            this.item = item;
+            this.score = score;
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package ru.practicum.shareit.item.service;
 
+import ru.practicum.shareit.export.NdjsonExport;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemWithBookingDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemService {
@@ -17,5 +20,11 @@ public interface ItemService {
 
     List<ItemDto> searchItem(String text, int from, int size);
 
+    List<ItemDto> searchItemByRelevance(String text, int from, int size);
+
+    ItemAvailabilityDto getItemAvailability(Long id, LocalDateTime from, LocalDateTime to);
+
     CommentDto addComment(CommentDto comment, Long userId, Long itemId);
+
+    NdjsonExport exportOwnerItems(Long ownerId, LocalDateTime since);
 }
@@ -3,15 +3,18 @@ package ru.practicum.shareit.item.service;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.BookingRepository;
-import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.exception.BlankFieldException;
+import ru.practicum.shareit.exception.BookingDateException;
 import ru.practicum.shareit.exception.ForbiddenException;
 import ru.practicum.shareit.exception.NotAvailableException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.export.NdjsonExport;
+import ru.practicum.shareit.export.NdjsonWriter;
 import ru.practicum.shareit.item.CommentRepository;
 import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.item.dto.*;
@@ -21,10 +24,12 @@ import ru.practicum.shareit.request.ItemRequestRepository;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserExistenceCache;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -34,18 +39,27 @@ public class ItemServiceImpl implements ItemService {
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
     private final ItemRequestRepository itemRequestRepository;
+    private final ItemSearchIndex itemSearchIndex;
+    private final UserExistenceCache userExistenceCache;
+    private final NdjsonWriter ndjsonWriter;
 
     @Autowired
     public ItemServiceImpl(ItemRepository itemRepository,
                            UserRepository userRepository,
                            BookingRepository bookingRepository,
                            CommentRepository commentRepository,
-                           ItemRequestRepository itemRequestRepository) {
+                           ItemRequestRepository itemRequestRepository,
+                           ItemSearchIndex itemSearchIndex,
+                           UserExistenceCache userExistenceCache,
+                           NdjsonWriter ndjsonWriter) {
         this.itemRepository = itemRepository;
         this.userRepository = userRepository;
         this.bookingRepository = bookingRepository;
         this.commentRepository = commentRepository;
         this.itemRequestRepository = itemRequestRepository;
+        this.itemSearchIndex = itemSearchIndex;
+        this.userExistenceCache = userExistenceCache;
+        this.ndjsonWriter = ndjsonWriter;
     }
 
     @Override
@@ -64,8 +78,10 @@ public class ItemServiceImpl implements ItemService {
         }
 
         Item item = ItemMapper.toItem(itemDto, owner, request);
+        ItemDto result = ItemMapper.toItemDto(itemRepository.save(item));
+        itemSearchIndex.indexAfterCommit(result);
 
-        return ItemMapper.toItemDto(itemRepository.save(item));
+        return result;
     }
 
     @Override
@@ -73,8 +89,9 @@ public class ItemServiceImpl implements ItemService {
         if (ownerId == null) {
             throw new BlankFieldException("Заголовок X-Sharer-User-Id не должен быть пустым");
         }
-        User user = userRepository.findById(ownerId).orElseThrow(() ->
-                new NotFoundException("Пользователь с идентификатором " + ownerId + " не найден."));
+        if (!userExistenceCache.exists(ownerId)) {
+            throw new NotFoundException("Пользователь с идентификатором " + ownerId + " не найден.");
+        }
 
         Item itemToUpdate = itemRepository.findById(id).orElseThrow(() ->
                 new NotFoundException("Вещь с идентификатором " + id + " не найдена."));
@@ -84,56 +101,81 @@ public class ItemServiceImpl implements ItemService {
             throw new ForbiddenException("Вещь может менять только ее владелец");
         }
 
-        return ItemMapper.toItemDto(itemRepository.save(item));
+        ItemDto result = ItemMapper.toItemDto(itemRepository.save(item));
+        itemSearchIndex.indexAfterCommit(result);
+
+        return result;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public ItemWithBookingDto getItemById(Long id, Long ownerId) {
         Item item = itemRepository.findById(id).orElseThrow(() ->
                 new NotFoundException("Вещь с идентификатором " + id + " не найдена."));
 
-        ItemWithBookingDto result;
-
-        List<Booking> bookings = bookingRepository.findAllByItemId(id);
+        LocalDateTime now = LocalDateTime.now();
 
-        BookingDto lastBooking = bookings
-                .stream()
-                .filter(booking -> booking.getStart().isBefore(LocalDateTime.now()))
-                .filter(booking -> booking.getItem().getOwner().getId().equals(ownerId))
-                .filter(booking -> !booking.getStatus().equals(BookingStatus.REJECTED))
-                .max(Booking::compareTo)
-                .map(BookingMapper::toBookingDto)
+        Booking lastBooking = bookingRepository
+                .findFirstByItemIdAndItemOwnerIdAndStartBeforeAndStatusNotOrderByStartDesc(
+                        id, ownerId, now, BookingStatus.REJECTED)
                 .orElse(null);
 
-        BookingDto nextBooking = bookings
-                .stream()
-                .filter(booking -> booking.getStart().isAfter(LocalDateTime.now()))
-                .filter(booking -> booking.getItem().getOwner().getId().equals(ownerId))
-                .filter(booking -> !booking.getStatus().equals(BookingStatus.REJECTED))
-                .min(Booking::compareTo)
-                .map(BookingMapper::toBookingDto)
+        Booking nextBooking = bookingRepository
+                .findFirstByItemIdAndItemOwnerIdAndStartAfterAndStatusNotOrderByStartAsc(
+                        id, ownerId, now, BookingStatus.REJECTED)
                 .orElse(null);
 
-        List<CommentDto> comments = commentRepository.findAllCommentByItemId(id)
-                .stream()
-                .map(CommentMapper::toCommentDto)
-                .collect(Collectors.toList());
-
-        result = ItemMapper.toItemWithBookingDto(item, lastBooking, nextBooking, comments);
-
-        return result;
+        return toItemWithBookingDto(item, lastBooking, nextBooking, commentRepository.findAllCommentByItemId(id));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ItemWithBookingDto> listItemsOfUser(Long ownerId, int from, int size) {
         PageRequest page = PageRequest.of(from > 0 ? from / size : 0, size);
 
         List<Item> items = itemRepository.findAllByOwnerId(ownerId, page)
                 .getContent();
+
+        if (items.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Long> itemIds = items
+                .stream()
+                .map(Item::getId)
+                .collect(Collectors.toList());
+
+        Map<Long, List<Booking>> bookingsByItem = bookingRepository.findAllByItemIdIn(itemIds)
+                .stream()
+                .collect(Collectors.groupingBy(booking -> booking.getItem().getId()));
+
+        Map<Long, List<Comment>> commentsByItem = commentRepository.findAllByItemIdIn(itemIds)
+                .stream()
+                .collect(Collectors.groupingBy(comment -> comment.getItem().getId()));
+
         List<ItemWithBookingDto> result = new ArrayList<>();
 
+        LocalDateTime now = LocalDateTime.now();
+
         for (Item item : items) {
-            result.add(getItemById(item.getId(), ownerId));
+            List<Booking> bookings = bookingsByItem.getOrDefault(item.getId(), List.of());
+
+            Booking lastBooking = bookings
+                    .stream()
+                    .filter(booking -> booking.getStart().isBefore(now))
+                    .filter(booking -> !booking.getStatus().equals(BookingStatus.REJECTED))
+                    .max(Booking::compareTo)
+                    .orElse(null);
+
+            Booking nextBooking = bookings
+                    .stream()
+                    .filter(booking -> booking.getStart().isAfter(now))
+                    .filter(booking -> !booking.getStatus().equals(BookingStatus.REJECTED))
+                    .min(Booking::compareTo)
+                    .orElse(null);
+
+            result.add(toItemWithBookingDto(item, lastBooking, nextBooking,
+                    commentsByItem.getOrDefault(item.getId(), List.of())));
         }
 
         return result;
@@ -141,18 +183,37 @@ public class ItemServiceImpl implements ItemService {
 
     @Override
     public List<ItemDto> searchItem(String text, int from, int size) {
-        PageRequest page = PageRequest.of(from > 0 ? from / size : 0, size);
+        if (text.isBlank()) {
+            return new ArrayList<>();
+        } else {
+            return itemSearchIndex.search(text, from > 0 ? from / size * size : 0, size);
+        }
+    }
 
+    @Override
+    public List<ItemDto> searchItemByRelevance(String text, int from, int size) {
         if (text.isBlank()) {
             return new ArrayList<>();
         } else {
-            return itemRepository.searchItem(text, page)
-                    .stream()
-                    .map(ItemMapper::toItemDto)
-                    .collect(Collectors.toList());
+            return itemSearchIndex.searchByRelevance(text, from > 0 ? from / size * size : 0, size);
         }
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public ItemAvailabilityDto getItemAvailability(Long id, LocalDateTime from, LocalDateTime to) {
+        if (!to.isAfter(from)) {
+            throw new BookingDateException("Дата конца интервала должна быть позже даты начала");
+        }
+
+        Item item = itemRepository.findById(id).orElseThrow(() ->
+                new NotFoundException("Вещь с идентификатором " + id + " не найдена."));
+
+        boolean available = item.isAvailable() && !bookingRepository.existsOverlapping(id, from, to);
+
+        return new ItemAvailabilityDto(id, from, to, available);
+    }
+
     @Override
     public CommentDto addComment(CommentDto commentDto, Long userId, Long itemId) {
         Item item = itemRepository.findById(itemId).orElseThrow(() ->
@@ -177,4 +238,28 @@ public class ItemServiceImpl implements ItemService {
 
         return CommentMapper.toCommentDto(commentRepository.save(comment));
     }
+
+    @Override
+    public NdjsonExport exportOwnerItems(Long ownerId, LocalDateTime since) {
+        if (!userExistenceCache.exists(ownerId)) {
+            throw new NotFoundException("Пользователь с идентификатором " + ownerId + " не найден.");
+        }
+
+        return ndjsonWriter.export(() -> since == null
+                ? itemRepository.streamOwnerItems(ownerId)
+                : itemRepository.streamOwnerItemsSince(ownerId, since.minus(NdjsonExport.SINCE_OVERLAP)));
+    }
+
+    private ItemWithBookingDto toItemWithBookingDto(Item item, Booking lastBooking, Booking nextBooking,
+                                                    List<Comment> comments) {
+        List<CommentDto> commentsDto = comments
+                .stream()
+                .map(CommentMapper::toCommentDto)
+                .collect(Collectors.toList());
+
+        return ItemMapper.toItemWithBookingDto(item,
+                lastBooking != null ? BookingMapper.toBookingDto(lastBooking) : null,
+                nextBooking != null ? BookingMapper.toBookingDto(nextBooking) : null,
+                commentsDto);
+    }
 }
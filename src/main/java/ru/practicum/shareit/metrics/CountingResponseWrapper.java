@@ -0,0 +1,73 @@
+package ru.practicum.shareit.metrics;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the body bytes written through {@link #getOutputStream()}, which is what the Jackson
+ * message converters and the NDJSON exports use. Streamed bodies may be written from another thread.
+ */
+class CountingResponseWrapper extends HttpServletResponseWrapper {
+    private final AtomicLong byteCount = new AtomicLong();
+    private ServletOutputStream outputStream;
+
+    CountingResponseWrapper(HttpServletResponse response) {
+        super(response);
+    }
+
+    @Override
+    public synchronized ServletOutputStream getOutputStream() throws IOException {
+        if (outputStream == null) {
+            outputStream = new CountingOutputStream(super.getOutputStream());
+        }
+        return outputStream;
+    }
+
+    long getByteCount() {
+        return byteCount.get();
+    }
+
+    private class CountingOutputStream extends ServletOutputStream {
+        private final ServletOutputStream delegate;
+
+        CountingOutputStream(ServletOutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+            byteCount.incrementAndGet();
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            delegate.write(b, off, len);
+            byteCount.addAndGet(len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            delegate.setWriteListener(writeListener);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import org.hibernate.boot.Metadata;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.internal.EntityManagerFactoryBuilderImpl;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.springframework.boot.actuate.metrics.web.servlet.WebMvcTagsContributor;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.List;
+
+@Configuration
+public class MetricsConfig {
+    @Bean
+    public FilterRegistrationBean<RequestMetricsFilter> requestMetricsFilter(MeterRegistry registry) {
+        return new FilterRegistrationBean<>(new RequestMetricsFilter(registry));
+    }
+
+    /**
+     * Counts prepared statements and post-load events into the current request's {@link RequestCounts}.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer requestCountsHibernateCustomizer() {
+        StatementInspector statementInspector = sql -> {
+            RequestCounts.statementPrepared();
+            return sql;
+        };
+        IntegratorProvider integratorProvider = () -> List.of(new PostLoadCountingIntegrator());
+
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, statementInspector);
+            properties.put(EntityManagerFactoryBuilderImpl.INTEGRATOR_PROVIDER, integratorProvider);
+        };
+    }
+
+    /**
+     * Adds the controller method to {@code http.server.requests}, next to the uri tag.
+     */
+    @Bean
+    public WebMvcTagsContributor handlerTagsContributor() {
+        return new WebMvcTagsContributor() {
+            @Override
+            public Iterable<Tag> getTags(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                         Throwable exception) {
+                return Tags.of("handler", RequestMetricsFilter.handlerName(handler));
+            }
+
+            @Override
+            public Iterable<Tag> getLongRequestTags(HttpServletRequest request, Object handler) {
+                return Tags.of("handler", RequestMetricsFilter.handlerName(handler));
+            }
+        };
+    }
+
+    private static class PostLoadCountingIntegrator implements Integrator {
+        @Override
+        public void integrate(Metadata metadata, SessionFactoryImplementor sessionFactory,
+                              SessionFactoryServiceRegistry serviceRegistry) {
+            serviceRegistry.getService(EventListenerRegistry.class).appendListeners(
+                    EventType.POST_LOAD, (PostLoadEventListener) event -> RequestCounts.entityLoaded());
+        }
+
+        @Override
+        public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package ru.practicum.shareit.metrics;
+
+/**
+ * SQL statements and hydrated entities of the request handled by the current thread. Hibernate
+ * hooks count into it; work outside a request (schedulers, async export threads) is not counted.
+ */
+final class RequestCounts {
+    private static final ThreadLocal<RequestCounts> CURRENT = new ThreadLocal<>();
+
+    private long statements;
+    private long entities;
+
+    private RequestCounts() {
+    }
+
+    static RequestCounts begin() {
+        RequestCounts counts = new RequestCounts();
+        CURRENT.set(counts);
+        return counts;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    static void statementPrepared() {
+        RequestCounts counts = CURRENT.get();
+        if (counts != null) {
+            counts.statements++;
+        }
+    }
+
+    static void entityLoaded() {
+        RequestCounts counts = CURRENT.get();
+        if (counts != null) {
+            counts.entities++;
+        }
+    }
+
+    long getStatements() {
+        return statements;
+    }
+
+    long getEntities() {
+        return entities;
+    }
+}
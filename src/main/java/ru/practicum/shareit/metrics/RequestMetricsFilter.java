@@ -0,0 +1,103 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Records SQL statements, hydrated entities and response body bytes per request, tagged with the
+ * controller method that handled it. Bytes of async (streamed) responses are recorded on completion.
+ */
+public class RequestMetricsFilter extends OncePerRequestFilter {
+    static final String STATEMENTS = "shareit.request.statements";
+    static final String ENTITIES = "shareit.request.entities";
+    static final String BYTES = "shareit.request.bytes";
+
+    private final MeterRegistry registry;
+
+    public RequestMetricsFilter(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        CountingResponseWrapper countingResponse = new CountingResponseWrapper(response);
+        RequestCounts counts = RequestCounts.begin();
+        try {
+            chain.doFilter(request, countingResponse);
+        } finally {
+            RequestCounts.end();
+            String handler = handlerName(request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE));
+            summary(STATEMENTS, "SQL statements prepared per request", "statements", handler)
+                    .record(counts.getStatements());
+            summary(ENTITIES, "Entities hydrated per request", "entities", handler)
+                    .record(counts.getEntities());
+
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new BytesListener(handler, countingResponse));
+            } else {
+                recordBytes(handler, countingResponse);
+            }
+        }
+    }
+
+    static String handlerName(Object handler) {
+        if (handler instanceof HandlerMethod) {
+            HandlerMethod handlerMethod = (HandlerMethod) handler;
+            return handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName();
+        }
+        return "none";
+    }
+
+    private void recordBytes(String handler, CountingResponseWrapper response) {
+        summary(BYTES, "Response body bytes written per request", BaseUnits.BYTES, handler)
+                .record(response.getByteCount());
+    }
+
+    private DistributionSummary summary(String name, String description, String baseUnit, String handler) {
+        return DistributionSummary.builder(name)
+                .description(description)
+                .baseUnit(baseUnit)
+                .tag("handler", handler)
+                .register(registry);
+    }
+
+    private class BytesListener implements AsyncListener {
+        private final String handler;
+        private final CountingResponseWrapper response;
+
+        BytesListener(String handler, CountingResponseWrapper response) {
+            this.handler = handler;
+            this.response = response;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            recordBytes(handler, response);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
@@ -37,7 +37,7 @@ public class ItemRequestController {
 
     @GetMapping
     public List<ItemRequestDto> getMyItemRequests(@RequestHeader("X-Sharer-User-Id") Long ownerId) {
-        log.info("Попытка получения списка запросов владельца id={}", ownerId);
+        log.debug("Попытка получения списка запросов владельца id={}", ownerId);
         List<ItemRequestDto> result = itemRequestService.getMyItemRequests(ownerId);
         log.info("Получен список запросов. Количество: {}", result.size());
         return result;
@@ -47,18 +47,20 @@ public class ItemRequestController {
     public List<ItemRequestDto> getUserItemRequests(@RequestHeader("X-Sharer-User-Id") Long userId,
                                                     @RequestParam(defaultValue = "0") @PositiveOrZero int from,
                                                     @RequestParam(defaultValue = "10") @Positive int size) {
-        log.info("Попытка получения запроса пользователя id={}", userId);
+        log.debug("Попытка получения запросов других пользователей, пользователь id={}", userId);
         List<ItemRequestDto> result = itemRequestService.getUserItemRequests(userId, from, size);
-        log.info("Получен запрос: {}", result);
+        log.info("Получен список запросов других пользователей. Количество: {}", result.size());
+        log.debug("Получен список: {}", result);
         return result;
     }
 
     @GetMapping("/{requestId}")
     public ItemRequestDto getItemRequestById(@PathVariable Long requestId,
                                              @RequestHeader("X-Sharer-User-Id") Long userId) {
-        log.info("Попытка получения запроса id={}", requestId);
+        log.debug("Попытка получения запроса id={}", requestId);
         ItemRequestDto result = itemRequestService.getItemRequestById(requestId, userId);
-        log.info("Получен запрос: {}", result);
+        log.info("Получен запрос id={}", result.getId());
+        log.debug("Запрос: {}", result);
         return result;
     }
 }
@@ -1,14 +1,20 @@
 package ru.practicum.shareit.request;
 
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.request.model.ItemRequest;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
+    @Query("select r from ItemRequest as r where r.requestor.id = ?1")
     List<ItemRequest> getItemRequestsByRequestorId(Long requestorId);
 
-    Page<ItemRequest> findAllByRequestorIdNotLike(Long requestorId, Pageable page);
+    Slice<ItemRequest> findAllByRequestorIdNotLike(Long requestorId, Pageable page);
+
+    @Query("select r from ItemRequest as r join fetch r.requestor where r.id in ?1")
+    List<ItemRequest> findAllWithRequestorByIdIn(Collection<Long> ids);
 }
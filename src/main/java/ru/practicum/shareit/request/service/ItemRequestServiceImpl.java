@@ -4,21 +4,24 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.BlankFieldException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.item.dto.ItemMapper;
 import ru.practicum.shareit.item.dto.ItemResponseDto;
-import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.ItemRequestRepository;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestMapper;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserExistenceCache;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,13 +30,15 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
     private final ItemRequestRepository itemRequestRepository;
+    private final UserExistenceCache userExistenceCache;
 
     @Autowired
     public ItemRequestServiceImpl(ItemRepository itemRepository, UserRepository userRepository,
-                                  ItemRequestRepository itemRequestRepository) {
+                                  ItemRequestRepository itemRequestRepository, UserExistenceCache userExistenceCache) {
         this.itemRepository = itemRepository;
         this.userRepository = userRepository;
         this.itemRequestRepository = itemRequestRepository;
+        this.userExistenceCache = userExistenceCache;
     }
 
     @Override
@@ -52,13 +57,15 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ItemRequestDto> getMyItemRequests(Long requestorId) {
         if (requestorId == null) {
             throw new BlankFieldException("Заголовок X-Sharer-User-Id не должен быть пустым");
         }
 
-        User owner = userRepository.findById(requestorId).orElseThrow(() ->
-                new NotFoundException("Пользователь с идентификатором " + requestorId + " не найден."));
+        if (!userExistenceCache.exists(requestorId)) {
+            throw new NotFoundException("Пользователь с идентификатором " + requestorId + " не найден.");
+        }
 
         List<ItemRequestDto> itemRequestsDto = itemRequestRepository.getItemRequestsByRequestorId(requestorId)
                 .stream()
@@ -66,24 +73,13 @@ public class ItemRequestServiceImpl implements ItemRequestService {
                 .sorted(ItemRequestDto::compareTo)
                 .collect(Collectors.toList());
 
-        List<Item> items = itemRepository.findAllByRequestIdIn(
-                itemRequestsDto
-                        .stream()
-                        .map(ItemRequestDto::getId)
-                        .collect(Collectors.toList()));
-
-        for (ItemRequestDto itemRequestDto : itemRequestsDto) {
-            itemRequestDto.setItems(items
-                    .stream()
-                    .filter(item -> item.getRequest().getId().equals(itemRequestDto.getId()))
-                    .map(ItemMapper::toItemResponseDto)
-                    .collect(Collectors.toList()));
-        }
+        fillItems(itemRequestsDto);
 
         return itemRequestsDto;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ItemRequestDto> getUserItemRequests(Long requestorId, int from, int size) {
         PageRequest page = PageRequest.of(from > 0 ? from / size : 0, size);
         List<ItemRequestDto> itemRequestsDto = itemRequestRepository.findAllByRequestorIdNotLike(requestorId, page)
@@ -91,31 +87,21 @@ public class ItemRequestServiceImpl implements ItemRequestService {
                 .map(ItemRequestMapper::toItemRequestDto)
                 .toList();
 
-        List<Item> items = itemRepository.findAllByRequestIdIn(
-                itemRequestsDto
-                        .stream()
-                        .map(ItemRequestDto::getId)
-                        .collect(Collectors.toList()));
-
-        for (ItemRequestDto itemRequestDto : itemRequestsDto) {
-            itemRequestDto.setItems(items
-                    .stream()
-                    .filter(item -> item.getRequest().getId().equals(itemRequestDto.getId()))
-                    .map(ItemMapper::toItemResponseDto)
-                    .collect(Collectors.toList()));
-        }
+        fillItems(itemRequestsDto);
 
         return itemRequestsDto;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public ItemRequestDto getItemRequestById(Long id, Long userId) {
         if (userId == null) {
             throw new BlankFieldException("Заголовок X-Sharer-User-Id не должен быть пустым");
         }
 
-        User owner = userRepository.findById(userId).orElseThrow(() ->
-                new NotFoundException("Пользователь с идентификатором " + userId + " не найден."));
+        if (!userExistenceCache.exists(userId)) {
+            throw new NotFoundException("Пользователь с идентификатором " + userId + " не найден.");
+        }
 
         ItemRequest itemRequest = itemRequestRepository.findById(id).orElseThrow(() ->
                 new NotFoundException("Запрос с идентификатором " + id + " не найден."));
@@ -131,4 +117,16 @@ public class ItemRequestServiceImpl implements ItemRequestService {
 
         return itemRequestDto;
     }
+
+    private void fillItems(List<ItemRequestDto> itemRequestsDto) {
+        Map<Long, List<ItemResponseDto>> itemsByRequestId = ItemMapper.groupByRequestId(
+                itemRepository.findAllByRequestIdIn(itemRequestsDto
+                        .stream()
+                        .map(ItemRequestDto::getId)
+                        .collect(Collectors.toList())));
+
+        for (ItemRequestDto itemRequestDto : itemRequestsDto) {
+            itemRequestDto.setItems(itemsByRequestId.getOrDefault(itemRequestDto.getId(), new ArrayList<>()));
+        }
+    }
 }
@@ -0,0 +1,84 @@
+package ru.practicum.shareit.server;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs Tomcat request processing and MVC async work (the NDJSON exports) on virtual threads, one per
+ * task. A thread blocked on the database then costs no platform thread; concurrent database work is
+ * still bounded by the connection pool size. Requires Java 21 at runtime, the build stays on Java 11.
+ * PostgreSQL drivers before 42.6.0 do their I/O inside {@code synchronized} blocks, which pins the
+ * virtual thread to its carrier for the whole statement; startup warns about such a driver.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "shareit.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadsConfig {
+    private static final String PGJDBC_DRIVER = "org.postgresql.Driver";
+    private static final int PGJDBC_UNPINNED_MAJOR = 42;
+    private static final int PGJDBC_UNPINNED_MINOR = 6;
+
+    private final ExecutorService executor = newVirtualThreadPerTaskExecutor();
+
+    @Value("${spring.datasource.url:}")
+    private String datasourceUrl;
+
+    @PostConstruct
+    public void warnAboutPinningDriver() {
+        if (!datasourceUrl.startsWith("jdbc:postgresql:")) {
+            return;
+        }
+        DriverManager.drivers()
+                .filter(driver -> driver.getClass().getName().equals(PGJDBC_DRIVER))
+                .filter(VirtualThreadsConfig::pinsCarrierThread)
+                .findFirst()
+                .ifPresent(driver -> log.warn("Драйвер PostgreSQL {}.{} блокирует поток-носитель виртуального потока " +
+                                "на время запроса, нужна версия {}.{} или новее", driver.getMajorVersion(),
+                        driver.getMinorVersion(), PGJDBC_UNPINNED_MAJOR, PGJDBC_UNPINNED_MINOR));
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadsProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+
+    @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(executor);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static boolean pinsCarrierThread(Driver driver) {
+        return driver.getMajorVersion() < PGJDBC_UNPINNED_MAJOR
+                || driver.getMajorVersion() == PGJDBC_UNPINNED_MAJOR && driver.getMinorVersion() < PGJDBC_UNPINNED_MINOR;
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("Виртуальные потоки доступны начиная с Java 21, текущая версия: "
+                    + System.getProperty("java.version"), e);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Не удалось создать исполнитель на виртуальных потоках", e);
+        }
+    }
+}
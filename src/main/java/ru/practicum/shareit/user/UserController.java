@@ -1,21 +1,31 @@
 package ru.practicum.shareit.user;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.export.NdjsonExport;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
 import java.util.List;
 
 /**
  * TODO Sprint add-controllers.
  */
+@Validated
 @RestController
 @RequestMapping(path = "/users")
 @Slf4j
 public class UserController {
+    private static final int DEFAULT_PAGE_SIZE = 10;
+
     public final UserService userService;
 
     public UserController(UserService userService) {
@@ -50,19 +60,36 @@ public class UserController {
 
     @GetMapping("/{id}")
     public UserDto getUser(@PathVariable Long id) {
-        log.info("Попытка получить пользователя с id={}", id);
+        log.debug("Попытка получить пользователя с id={}", id);
         UserDto result = userService.getUserById(id);
-        log.info("Получен пользователь: {}", result);
+        log.info("Получен пользователь с id={}", result.getId());
 
         return result;
     }
 
     @GetMapping
-    public List<UserDto> listUsers() {
-        log.info("Попытка получения всех пользователей");
-        List<UserDto> result = userService.listUsers();
+    public List<UserDto> listUsers(@RequestParam(required = false) @PositiveOrZero Integer from,
+                                   @RequestParam(required = false) @Positive Integer size) {
+        log.debug("Попытка получения пользователей, from={}, size={}", from, size);
+        List<UserDto> result = from == null && size == null
+                ? userService.listUsers()
+                : userService.listUsers(from == null ? 0 : from, size == null ? DEFAULT_PAGE_SIZE : size);
         log.info("Получен список пользователей. Количество: {}", result.size());
 
         return result;
     }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        log.info("Попытка выгрузки всех пользователей");
+        NdjsonExport export = userService.exportUsers();
+        StreamingResponseBody body = out -> {
+            long count = export.writeTo(out);
+            log.info("Выгружены пользователи. Количество: {}", count);
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
 }
@@ -0,0 +1,64 @@
+package ru.practicum.shareit.user.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded read-through cache of user ids known to exist, used by the 404 checks on hot endpoints.
+ * Only positive answers are cached; entries expire after the configured TTL and the least recently
+ * used ones are dropped once the size limit is reached.
+ */
+@Component
+public class UserExistenceCache {
+    private final UserRepository userRepository;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final Map<Long, Long> expirations;
+
+    @Autowired
+    public UserExistenceCache(UserRepository userRepository,
+                              @Value("${shareit.user-cache.max-size:10000}") int maxSize,
+                              @Value("${shareit.user-cache.ttl:PT5M}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.expirations = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+                return size() > UserExistenceCache.this.maxSize;
+            }
+        };
+    }
+
+    public boolean exists(Long id) {
+        long now = System.nanoTime();
+
+        synchronized (expirations) {
+            Long expiresAt = expirations.get(id);
+            if (expiresAt != null && expiresAt - now > 0) {
+                return true;
+            }
+            expirations.remove(id);
+        }
+
+        boolean exists = userRepository.existsById(id);
+        if (exists) {
+            synchronized (expirations) {
+                expirations.put(id, now + ttlNanos);
+            }
+        }
+        return exists;
+    }
+
+    public void evict(Long id) {
+        synchronized (expirations) {
+            expirations.remove(id);
+        }
+    }
+}
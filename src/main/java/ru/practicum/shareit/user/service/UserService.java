@@ -1,5 +1,6 @@
 package ru.practicum.shareit.user.service;
 
+import ru.practicum.shareit.export.NdjsonExport;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 
@@ -15,4 +16,8 @@ public interface UserService {
     UserDto getUserById(Long id);
 
     List<UserDto> listUsers();
+
+    List<UserDto> listUsers(int from, int size);
+
+    NdjsonExport exportUsers();
 }
@@ -1,23 +1,31 @@
 package ru.practicum.shareit.user.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.export.NdjsonExport;
+import ru.practicum.shareit.export.NdjsonWriter;
 import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserMapper;
 import ru.practicum.shareit.user.model.User;
 
-import java.util.ArrayList;
 import java.util.List;
 
 @Service
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
+    private final UserExistenceCache userExistenceCache;
+    private final NdjsonWriter ndjsonWriter;
 
     @Autowired
-    public UserServiceImpl(UserRepository userRepository) {
+    public UserServiceImpl(UserRepository userRepository, UserExistenceCache userExistenceCache,
+                           NdjsonWriter ndjsonWriter) {
         this.userRepository = userRepository;
+        this.userExistenceCache = userExistenceCache;
+        this.ndjsonWriter = ndjsonWriter;
     }
 
     @Override
@@ -35,27 +43,41 @@ public class UserServiceImpl implements UserService {
         if (user.getEmail() != null) {
             userToUpdate.setEmail(user.getEmail());
         }
-        return UserMapper.toUserDto(userRepository.save(userToUpdate));
+        UserDto result = UserMapper.toUserDto(userRepository.save(userToUpdate));
+        userExistenceCache.evict(id);
+
+        return result;
     }
 
     @Override
     public void deleteUser(Long id) {
         userRepository.deleteById(id);
+        userExistenceCache.evict(id);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public UserDto getUserById(Long id) {
         return UserMapper.toUserDto(userRepository.findById(id).orElseThrow(() ->
                 new NotFoundException("Пользователь с идентификатором " + id + " не найден.")));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<UserDto> listUsers() {
-        List<UserDto> result = new ArrayList<>();
+        return userRepository.findAllUserDto();
+    }
 
-        for (User user : userRepository.findAll()) {
-            result.add(UserMapper.toUserDto(user));
-        }
-        return result;
+    @Override
+    @Transactional(readOnly = true)
+    public List<UserDto> listUsers(int from, int size) {
+        PageRequest page = PageRequest.of(from > 0 ? from / size : 0, size);
+
+        return userRepository.findAllUserDto(page).getContent();
+    }
+
+    @Override
+    public NdjsonExport exportUsers() {
+        return ndjsonWriter.export(userRepository::streamAllUserDto);
     }
 }
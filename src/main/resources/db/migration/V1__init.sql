@@ -1,23 +1,17 @@
-DROP TABLE IF EXISTS users CASCADE;
-DROP TABLE IF EXISTS items CASCADE;
-DROP TABLE IF EXISTS bookings CASCADE;
-DROP TABLE IF EXISTS requests CASCADE;
-DROP TABLE IF EXISTS comments CASCADE;
-
-CREATE TABLE IF NOT EXISTS users (
+CREATE TABLE users (
   id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
   name VARCHAR(255) NOT NULL,
   email VARCHAR(512) UNIQUE NOT NULL
 );
 
-CREATE TABLE IF NOT EXISTS requests (
+CREATE TABLE requests (
   id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
   description VARCHAR(512) NOT NULL,
   requestor_id BIGINT REFERENCES users (id),
   created_date TIMESTAMP WITHOUT TIME ZONE
 );
 
-CREATE TABLE IF NOT EXISTS items (
+CREATE TABLE items (
   id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
   name VARCHAR(255) NOT NULL,
   description VARCHAR(512) NOT NULL,
@@ -26,19 +20,24 @@ CREATE TABLE IF NOT EXISTS items (
   request_id BIGINT REFERENCES requests (id)
 );
 
-CREATE TABLE IF NOT EXISTS bookings (
+CREATE TABLE bookings (
   id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
   start_date TIMESTAMP WITHOUT TIME ZONE,
   end_date TIMESTAMP WITHOUT TIME ZONE,
   item_id BIGINT REFERENCES items (id),
   booker_id BIGINT REFERENCES users (id),
-  status VARCHAR(20)
+  status VARCHAR(20),
+  phase VARCHAR(10)
 );
 
-CREATE TABLE IF NOT EXISTS comments (
+CREATE INDEX idx_bookings_item_start ON bookings (item_id, start_date);
+CREATE INDEX idx_bookings_booker_phase_end ON bookings (booker_id, phase, end_date);
+CREATE INDEX idx_bookings_item_phase_end ON bookings (item_id, phase, end_date);
+
+CREATE TABLE comments (
   id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
   text VARCHAR(512) NOT NULL,
   created_date TIMESTAMP WITHOUT TIME ZONE,
   item_id BIGINT REFERENCES items (id),
   author_id BIGINT REFERENCES users (id)
-);
\ No newline at end of file
+);
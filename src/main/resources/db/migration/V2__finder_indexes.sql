@@ -0,0 +1,10 @@
+CREATE INDEX idx_bookings_booker_end ON bookings (booker_id, end_date);
+CREATE INDEX idx_bookings_booker_status_end ON bookings (booker_id, status, end_date);
+CREATE INDEX idx_bookings_item_status_end ON bookings (item_id, status, end_date);
+
+CREATE INDEX idx_items_owner ON items (owner_id, id);
+CREATE INDEX idx_items_request ON items (request_id);
+
+CREATE INDEX idx_comments_item ON comments (item_id);
+
+CREATE INDEX idx_requests_requestor_created ON requests (requestor_id, created_date);
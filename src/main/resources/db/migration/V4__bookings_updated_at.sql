@@ -0,0 +1,3 @@
+ALTER TABLE bookings ADD COLUMN updated_at TIMESTAMP WITHOUT TIME ZONE DEFAULT CURRENT_TIMESTAMP;
+
+CREATE INDEX idx_bookings_item_updated ON bookings (item_id, updated_at);
@@ -0,0 +1,14 @@
+-- A database created by the old schema.sql is baselined at version 1 and never ran V1__init.sql;
+-- this adds what V1 has on top of it. On a database that ran V1 every statement is a no-op.
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS phase VARCHAR(10);
+
+UPDATE bookings SET phase = CASE
+    WHEN end_date < LOCALTIMESTAMP THEN 'PAST'
+    WHEN start_date > LOCALTIMESTAMP THEN 'FUTURE'
+    ELSE 'CURRENT'
+END
+WHERE phase IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_bookings_item_start ON bookings (item_id, start_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_phase_end ON bookings (booker_id, phase, end_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_phase_end ON bookings (item_id, phase, end_date);
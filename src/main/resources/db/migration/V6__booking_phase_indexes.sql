@@ -0,0 +1,2 @@
+CREATE INDEX idx_bookings_phase_end ON bookings (phase, end_date);
+CREATE INDEX idx_bookings_phase_start ON bookings (phase, start_date);
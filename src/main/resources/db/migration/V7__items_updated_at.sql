@@ -0,0 +1,3 @@
+ALTER TABLE items ADD COLUMN updated_at TIMESTAMP WITHOUT TIME ZONE DEFAULT CURRENT_TIMESTAMP;
+
+CREATE INDEX idx_items_owner_updated ON items (owner_id, updated_at);
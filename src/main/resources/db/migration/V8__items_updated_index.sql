@@ -0,0 +1 @@
+CREATE INDEX idx_items_updated ON items (updated_at);
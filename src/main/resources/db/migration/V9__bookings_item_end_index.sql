@@ -0,0 +1,3 @@
+-- The overlap check bounds start_date < :end and end_date > :start; idx_bookings_item_start serves
+-- only the first, and most bookings of an item have already ended, so this serves the second.
+CREATE INDEX idx_bookings_item_end ON bookings (item_id, end_date);
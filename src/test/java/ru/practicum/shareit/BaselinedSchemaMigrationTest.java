@@ -0,0 +1,66 @@
+package ru.practicum.shareit;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Migrates a database created by the old {@code schema.sql} with the baseline settings of application.properties.
+ */
+public class BaselinedSchemaMigrationTest {
+    private static final String OLD_SCHEMA = "CREATE TABLE users (" +
+            "id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, name VARCHAR(255) NOT NULL, " +
+            "email VARCHAR(512) UNIQUE NOT NULL);" +
+            "CREATE TABLE requests (" +
+            "id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, description VARCHAR(512) NOT NULL, " +
+            "requestor_id BIGINT REFERENCES users (id), created_date TIMESTAMP WITHOUT TIME ZONE);" +
+            "CREATE TABLE items (" +
+            "id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, name VARCHAR(255) NOT NULL, " +
+            "description VARCHAR(512) NOT NULL, is_available BOOL NOT NULL, owner_id BIGINT REFERENCES users (id), " +
+            "request_id BIGINT REFERENCES requests (id));" +
+            "CREATE TABLE bookings (" +
+            "id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, start_date TIMESTAMP WITHOUT TIME ZONE, " +
+            "end_date TIMESTAMP WITHOUT TIME ZONE, item_id BIGINT REFERENCES items (id), " +
+            "booker_id BIGINT REFERENCES users (id), status VARCHAR(20));" +
+            "CREATE TABLE comments (" +
+            "id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, text VARCHAR(512) NOT NULL, " +
+            "created_date TIMESTAMP WITHOUT TIME ZONE, item_id BIGINT REFERENCES items (id), " +
+            "author_id BIGINT REFERENCES users (id));";
+
+    @Test
+    void migrateOldSchemaTest() {
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource(
+                "jdbc:h2:mem:baselined", "test", "test", true);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        try {
+            jdbcTemplate.execute(OLD_SCHEMA);
+            jdbcTemplate.update("INSERT INTO users (name, email) VALUES ('Elon', 'elon@spacex.com')");
+            jdbcTemplate.update("INSERT INTO items (name, description, is_available, owner_id) " +
+                    "VALUES ('Дрель', 'super1000turbo edition', true, 1)");
+            jdbcTemplate.update("INSERT INTO bookings (start_date, end_date, item_id, booker_id, status) " +
+                    "VALUES (TIMESTAMP '2000-01-01 00:00:00', TIMESTAMP '2000-01-02 00:00:00', 1, 1, 'APPROVED')");
+
+            Flyway.configure()
+                    .dataSource(dataSource)
+                    .baselineOnMigrate(true)
+                    .baselineVersion("1")
+                    .load()
+                    .migrate();
+
+            assertEquals("PAST", jdbcTemplate.queryForObject("SELECT phase FROM bookings", String.class));
+            List<String> indexes = jdbcTemplate.queryForList(
+                    "SELECT index_name FROM information_schema.indexes WHERE table_name = 'BOOKINGS'", String.class);
+            assertTrue(indexes.containsAll(List.of(
+                            "IDX_BOOKINGS_ITEM_START", "IDX_BOOKINGS_BOOKER_PHASE_END", "IDX_BOOKINGS_ITEM_PHASE_END")),
+                    indexes.toString());
+        } finally {
+            dataSource.destroy();
+        }
+    }
+}
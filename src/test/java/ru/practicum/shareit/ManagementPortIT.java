@@ -0,0 +1,52 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class ManagementPortIT {
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @LocalServerPort
+    private int serverPort;
+
+    @LocalManagementPort
+    private int managementPort;
+
+    @Test
+    void actuatorOnlyOnManagementPortTest() {
+        assertThat(restTemplate.getForEntity("http://127.0.0.1:" + serverPort + "/actuator/loggers", String.class)
+                .getStatusCode(), equalTo(HttpStatus.NOT_FOUND));
+        assertThat(restTemplate.getForEntity("http://127.0.0.1:" + managementPort + "/actuator/loggers", String.class)
+                .getStatusCode(), equalTo(HttpStatus.OK));
+    }
+
+    @Test
+    void changeLoggerLevelOnlyOnManagementPortTest() {
+        String logger = "/actuator/loggers/ru.practicum.shareit.booking.BookingController";
+        HttpEntity<String> body = new HttpEntity<>("{\"configuredLevel\":null}", jsonHeaders());
+
+        assertThat(restTemplate.postForEntity("http://127.0.0.1:" + serverPort + logger, body, String.class)
+                .getStatusCode(), equalTo(HttpStatus.NOT_FOUND));
+        assertThat(restTemplate.postForEntity("http://127.0.0.1:" + managementPort + logger, body, String.class)
+                .getStatusCode(), equalTo(HttpStatus.NO_CONTENT));
+    }
+
+    private HttpHeaders jsonHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return headers;
+    }
+}
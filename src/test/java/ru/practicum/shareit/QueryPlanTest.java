@@ -0,0 +1,300 @@
+package ru.practicum.shareit;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCallback;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.model.BookingPhase;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.CommentRepository;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.request.ItemRequestRepository;
+
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Calls each filtered repository finder against the embedded H2 database, captures the SQL Hibernate
+ * sends through a {@link StatementInspector} and fails when EXPLAIN shows a full table scan for any of it.
+ * Unfiltered listings ({@code findAllWithRequest}, {@code findAllUserDto}, {@code streamAllUserDto}),
+ * the substring search and {@code findAllByRequestorIdNotLike} scan by design and are not listed.
+ */
+@DataJpaTest
+public class QueryPlanTest {
+    private static final String FULL_SCAN = ".tableScan";
+    private static final LocalDateTime NOW = LocalDateTime.of(2030, 1, 1, 0, 0);
+    private static final Pageable FIRST_PAGE = PageRequest.of(0, 10);
+    private static final Pageable PAGE = PageRequest.of(1, 10);
+    private static final Pattern BOOKINGS_ACCESS = Pattern.compile(
+            "\"BOOKINGS\" \"BOOKING0_\"\\s*/\\*(.*?)(?:/\\*|\\*/)", Pattern.DOTALL);
+    private static final BookingCursor CURSOR = new BookingCursor(NOW, 100L);
+    private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    static Stream<Arguments> finders() {
+        List<Arguments> finders = new ArrayList<>(List.of(
+                finder("BookingRepository.findByBookerIdOrderByEndDesc",
+                        test -> test.bookingRepository.findByBookerIdOrderByEndDesc(1L, PAGE)),
+                finder("BookingRepository.findByBookerIdAndEndIsBeforeOrderByEndDesc",
+                        test -> test.bookingRepository.findByBookerIdAndEndIsBeforeOrderByEndDesc(1L, NOW)),
+                finder("BookingRepository.findByBookerIdAndStatusOrderByEndDesc",
+                        test -> test.bookingRepository.findByBookerIdAndStatusOrderByEndDesc(
+                                1L, BookingStatus.WAITING, PAGE)),
+                finder("BookingRepository.findByItemOwnerIdOrderByEndDesc",
+                        test -> test.bookingRepository.findByItemOwnerIdOrderByEndDesc(1L, PAGE)),
+                finder("BookingRepository.findByItemOwnerIdAndStatusOrderByEndDesc",
+                        test -> test.bookingRepository.findByItemOwnerIdAndStatusOrderByEndDesc(
+                                1L, BookingStatus.WAITING, PAGE)),
+                finder("BookingRepository.findAllByItemId",
+                        test -> test.bookingRepository.findAllByItemId(1L)),
+                finder("BookingRepository.findWithDetailsById",
+                        test -> test.bookingRepository.findWithDetailsById(1L)),
+                finder("BookingRepository.updateStatusOfOwnerBooking",
+                        test -> test.bookingRepository.updateStatusOfOwnerBooking(
+                                1L, 1L, BookingStatus.WAITING, BookingStatus.APPROVED, NOW)),
+                finder("BookingRepository.findIdsOfOwnerBookingsForUpdate",
+                        test -> test.bookingRepository.findIdsOfOwnerBookingsForUpdate(
+                                List.of(1L, 2L), 1L, BookingStatus.WAITING)),
+                finder("BookingRepository.updateStatusOfOwnerBookings",
+                        test -> test.bookingRepository.updateStatusOfOwnerBookings(
+                                List.of(1L, 2L), 1L, BookingStatus.WAITING, BookingStatus.APPROVED, NOW)),
+                finder("BookingRepository.findByIdInAndItemOwnerIdOrderById",
+                        test -> test.bookingRepository.findByIdInAndItemOwnerIdOrderById(List.of(1L, 2L), 1L)),
+                finder("BookingRepository.updatePhaseOfEnded",
+                        test -> test.bookingRepository.updatePhaseOfEnded(
+                                List.of(BookingPhase.FUTURE, BookingPhase.CURRENT), BookingPhase.PAST, NOW)),
+                finder("BookingRepository.updatePhaseOfStarted",
+                        test -> test.bookingRepository.updatePhaseOfStarted(
+                                BookingPhase.FUTURE, BookingPhase.CURRENT, NOW)),
+                finder("BookingRepository.existsOverlapping",
+                        test -> test.bookingRepository.existsOverlapping(1L, NOW, NOW.plusDays(1))),
+                finder("BookingRepository.findOverlapping",
+                        test -> test.bookingRepository.findOverlapping(List.of(1L, 2L), NOW, NOW.plusDays(1))),
+                finder("BookingRepository.findFirstByItemIdAndItemOwnerIdAndStartBefore...",
+                        test -> test.bookingRepository
+                                .findFirstByItemIdAndItemOwnerIdAndStartBeforeAndStatusNotOrderByStartDesc(
+                                        1L, 1L, NOW, BookingStatus.REJECTED)),
+                finder("BookingRepository.findFirstByItemIdAndItemOwnerIdAndStartAfter...",
+                        test -> test.bookingRepository
+                                .findFirstByItemIdAndItemOwnerIdAndStartAfterAndStatusNotOrderByStartAsc(
+                                        1L, 1L, NOW, BookingStatus.REJECTED)),
+                finder("BookingRepository.findAllByItemIdIn",
+                        test -> test.bookingRepository.findAllByItemIdIn(List.of(1L, 2L))),
+                finder("BookingRepository.streamOwnerBookings",
+                        test -> test.bookingRepository.streamOwnerBookings(1L)),
+                finder("BookingRepository.streamOwnerBookingsSince",
+                        test -> test.bookingRepository.streamOwnerBookingsSince(1L, NOW)),
+                finder("ItemRepository.findByIdForUpdate",
+                        test -> test.itemRepository.findByIdForUpdate(1L)),
+                finder("ItemRepository.findAllByIdForUpdate",
+                        test -> test.itemRepository.findAllByIdForUpdate(List.of(1L, 2L))),
+                finder("ItemRepository.findAllByOwnerId",
+                        test -> test.itemRepository.findAllByOwnerId(1L, PageRequest.of(1, 10, Sort.by("id")))),
+                finder("ItemRepository.findAllWithRequestUpdatedSince",
+                        test -> test.itemRepository.findAllWithRequestUpdatedSince(
+                                NOW, PageRequest.of(1, 10, Sort.by("updatedAt", "id")))),
+                finder("ItemRepository.findAllByRequestId",
+                        test -> test.itemRepository.findAllByRequestId(1L)),
+                finder("ItemRepository.findAllByRequestIdIn",
+                        test -> test.itemRepository.findAllByRequestIdIn(List.of(1L, 2L))),
+                finder("ItemRepository.streamOwnerItems",
+                        test -> test.itemRepository.streamOwnerItems(1L)),
+                finder("ItemRepository.streamOwnerItemsSince",
+                        test -> test.itemRepository.streamOwnerItemsSince(1L, NOW)),
+                finder("CommentRepository.findAllCommentByItemId",
+                        test -> test.commentRepository.findAllCommentByItemId(1L)),
+                finder("CommentRepository.findAllByItemIdIn",
+                        test -> test.commentRepository.findAllByItemIdIn(List.of(1L, 2L))),
+                finder("ItemRequestRepository.findAllWithRequestorByIdIn",
+                        test -> test.itemRequestRepository.findAllWithRequestorByIdIn(List.of(1L, 2L))),
+                finder("ItemRequestRepository.getItemRequestsByRequestorId",
+                        test -> test.itemRequestRepository.getItemRequestsByRequestorId(1L))
+        ));
+
+        for (BookingPhase phase : BookingPhase.values()) {
+            finders.add(finder("BookingRepository.findBookerBookingsInPhase " + phase,
+                    test -> test.bookingRepository.findBookerBookingsInPhase(1L, phase, NOW, FIRST_PAGE)));
+            finders.add(finder("BookingRepository.findBookerBookingsInPhase " + phase + " page 2",
+                    test -> test.bookingRepository.findBookerBookingsInPhase(1L, phase, NOW, PAGE)));
+            finders.add(finder("BookingRepository.findOwnerBookingsInPhase " + phase,
+                    test -> test.bookingRepository.findOwnerBookingsInPhase(1L, phase, NOW, FIRST_PAGE)));
+            finders.add(finder("BookingRepository.findOwnerBookingsInPhase " + phase + " page 2",
+                    test -> test.bookingRepository.findOwnerBookingsInPhase(1L, phase, NOW, PAGE)));
+        }
+        for (BookingState state : BookingState.values()) {
+            finders.add(finder("BookingRepository.findBookerBookingsAfter " + state,
+                    test -> test.bookingRepository.findBookerBookingsAfter(1L, state, NOW, CURSOR, 10)));
+            finders.add(finder("BookingRepository.findOwnerBookingsAfter " + state,
+                    test -> test.bookingRepository.findOwnerBookingsAfter(1L, state, NOW, CURSOR, 10)));
+        }
+        return finders.stream();
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("finders")
+    void finderUsesIndexTest(String finder, Finder call) {
+        STATEMENTS.clear();
+        Object result = call.run(this);
+        if (result instanceof Stream) {
+            try (Stream<?> rows = (Stream<?>) result) {
+                rows.forEach(row -> {
+                });
+            }
+        }
+
+        assertFalse(STATEMENTS.isEmpty(), finder + " не выполнил ни одного запроса");
+        for (String sql : STATEMENTS) {
+            String plan = explain(sql);
+            assertFalse(plan.contains(FULL_SCAN),
+                    finder + " выполняет полное сканирование таблицы:\n" + plan);
+        }
+    }
+
+    /**
+     * An overlap check must bound the bookings of the item by a date inside the index lookup, not only filter
+     * them after it. {@code idx_bookings_item_start} bounds {@code start_date < :end} and
+     * {@code idx_bookings_item_end} bounds {@code end_date > :start}; PostgreSQL picks between them by
+     * statistics, while H2 always prefers the upper bound.
+     */
+    static Stream<Arguments> overlapFinders() {
+        return Stream.of(
+                finder("BookingRepository.existsOverlapping",
+                        test -> test.bookingRepository.existsOverlapping(1L, NOW, NOW.plusDays(1))),
+                finder("BookingRepository.findOverlapping",
+                        test -> test.bookingRepository.findOverlapping(List.of(1L, 2L), NOW, NOW.plusDays(1))));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("overlapFinders")
+    void overlapFinderBoundsBookingsByDateTest(String finder, Finder call) {
+        STATEMENTS.clear();
+        call.run(this);
+
+        for (String sql : STATEMENTS) {
+            String plan = explain(sql);
+            String access = bookingsAccess(plan);
+            assertTrue(access.contains("ITEM_ID") && access.contains("_DATE"),
+                    finder + " не ограничивает бронирования вещи датой в индексе:\n" + plan);
+        }
+    }
+
+    /**
+     * A CURRENT or PAST list must bound the bookings by the phase or a date inside the index lookup, not only
+     * filter them after it, or every booking of the user is read.
+     */
+    static Stream<Arguments> phaseFinders() {
+        return Stream.of(BookingPhase.CURRENT, BookingPhase.PAST)
+                .flatMap(phase -> Stream.of(
+                        finder("BookingRepository.findBookerBookingsInPhase " + phase,
+                                test -> test.bookingRepository.findBookerBookingsInPhase(1L, phase, NOW, FIRST_PAGE)),
+                        finder("BookingRepository.findOwnerBookingsInPhase " + phase,
+                                test -> test.bookingRepository.findOwnerBookingsInPhase(1L, phase, NOW, FIRST_PAGE)),
+                        finder("BookingRepository.findBookerBookingsAfter " + phase,
+                                test -> test.bookingRepository.findBookerBookingsAfter(
+                                        1L, BookingState.valueOf(phase.name()), NOW, CURSOR, 10)),
+                        finder("BookingRepository.findOwnerBookingsAfter " + phase,
+                                test -> test.bookingRepository.findOwnerBookingsAfter(
+                                        1L, BookingState.valueOf(phase.name()), NOW, CURSOR, 10))));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("phaseFinders")
+    void phaseFinderBoundsBookingsInIndexTest(String finder, Finder call) {
+        STATEMENTS.clear();
+        call.run(this);
+
+        for (String sql : STATEMENTS) {
+            String plan = explain(sql);
+            assertTrue(bookingsAccess(plan).matches("(?s).*(PHASE|START_DATE|END_DATE).*"),
+                    finder + " не ограничивает бронирования фазой или датой в индексе:\n" + plan);
+        }
+    }
+
+    /**
+     * Returns the index condition H2 reads the bookings with, or an empty string when there is none.
+     */
+    private static String bookingsAccess(String plan) {
+        Matcher access = BOOKINGS_ACCESS.matcher(plan);
+        return access.find() ? access.group(1) : "";
+    }
+
+    /**
+     * Explains the statement with every parameter bound to null; H2 plans it when it is prepared,
+     * before the values are known, as it does for the statement itself.
+     */
+    private String explain(String sql) {
+        return jdbcTemplate.execute("EXPLAIN " + sql, (PreparedStatementCallback<String>) statement -> {
+            int parameters = statement.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= parameters; i++) {
+                statement.setObject(i, null);
+            }
+            List<String> lines = new ArrayList<>();
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    lines.add(resultSet.getString(1));
+                }
+            }
+            return String.join("\n", lines);
+        });
+    }
+
+    private static Arguments finder(String name, Finder call) {
+        return Arguments.of(name, call);
+    }
+
+    @FunctionalInterface
+    interface Finder {
+        Object run(QueryPlanTest test);
+    }
+
+    @TestConfiguration
+    static class StatementCaptureConfig {
+        @Bean
+        public HibernatePropertiesCustomizer statementCaptureCustomizer() {
+            StatementInspector statementInspector = sql -> {
+                STATEMENTS.add(sql);
+                return sql;
+            };
+
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, statementInspector);
+        }
+    }
+}
@@ -5,13 +5,21 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.booking.dto.BookingBatchResult;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.exception.ApproveRequestException;
 import ru.practicum.shareit.exception.BookingDateException;
+import ru.practicum.shareit.exception.InvalidCursorException;
+import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.UnsupportedStatusException;
 
 import java.nio.charset.StandardCharsets;
@@ -20,9 +28,14 @@ import java.util.List;
 
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = BookingController.class)
@@ -74,6 +87,40 @@ public class BookingControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void createBookingsTest() throws Exception {
+        List<BookingDto> bookingDtos = List.of(bookingDto, bookingDto);
+        when(bookingService.createBookings(bookingDtos, 1L))
+                .thenReturn(List.of(BookingBatchResult.created(bookingDto),
+                        BookingBatchResult.failed(HttpStatus.BAD_REQUEST, "Вещь уже забронирована на эти даты")));
+
+        mvc.perform(post("/bookings/batch")
+                        .content(mapper.writeValueAsString(bookingDtos))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("X-Sharer-User-Id", 1))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].booking.id", is(bookingDto.getId()), Long.class))
+                .andExpect(jsonPath("$[1].error", is(HttpStatus.BAD_REQUEST.toString())))
+                .andExpect(jsonPath("$[1].description", is("Вещь уже забронирована на эти даты")));
+    }
+
+    @Test
+    void createBookingsWithPastDateTest() throws Exception {
+        BookingDto pastBookingDto = new BookingDto(null, LocalDateTime.now().minusDays(2),
+                LocalDateTime.now().minusDays(1), 1L, null, null, null, BookingStatus.WAITING);
+
+        mvc.perform(post("/bookings/batch")
+                        .content(mapper.writeValueAsString(List.of(bookingDto, pastBookingDto)))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("X-Sharer-User-Id", 1))
+                .andExpect(status().isBadRequest());
+        verify(bookingService, never()).createBookings(any(), any());
+    }
+
     @Test
     void approveBookingTest() throws Exception {
         bookingDto.setStatus(BookingStatus.APPROVED);
@@ -92,6 +139,27 @@ public class BookingControllerTest {
                 .andExpect(jsonPath("$.status", is(BookingStatus.APPROVED.toString())));
     }
 
+    @Test
+    void approveBookingsTest() throws Exception {
+        bookingDto.setStatus(BookingStatus.REJECTED);
+        when(bookingService.approveBookings(List.of(1L, 2L), 1L, false))
+                .thenReturn(List.of(BookingBatchResult.decided(bookingDto),
+                        BookingBatchResult.failed(HttpStatus.BAD_REQUEST, "Бронирование уже подтверждено")));
+
+        mvc.perform(patch("/bookings/batch")
+                        .content(mapper.writeValueAsString(List.of(1L, 2L)))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .param("approved", "false")
+                        .header("X-Sharer-User-Id", 1))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(2)))
+                .andExpect(jsonPath("$[0].booking.status", is(BookingStatus.REJECTED.toString())))
+                .andExpect(jsonPath("$[1].error", is(HttpStatus.BAD_REQUEST.toString())))
+                .andExpect(jsonPath("$[1].description", is("Бронирование уже подтверждено")));
+    }
+
     @Test
     void approveAlreadyApprovedBookingTest() throws Exception {
         when(bookingService.approveBooking(1L, 1L, true)).thenThrow(ApproveRequestException.class);
@@ -167,4 +235,63 @@ public class BookingControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.length()", is(1)));
     }
+
+    @Test
+    void getOwnerBookingsAfterCursorTest() throws Exception {
+        when(bookingService.getOwnerBookingsAfter(anyLong(), anyString(), anyString(), anyInt()))
+                .thenReturn(new SliceImpl<>(List.of(bookingDto), PageRequest.of(0, 1), true));
+
+        mvc.perform(get("/bookings/owner", 1L)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .param("state", "ALL")
+                        .param("after", "")
+                        .param("size", "1")
+                        .header("X-Sharer-User-Id", 1))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(1)))
+                .andExpect(header().string("X-Next-Cursor", BookingCursor.of(bookingDto).format()));
+    }
+
+    @Test
+    void getUserBookingsWithInvalidCursorTest() throws Exception {
+        when(bookingService.getUserBookingsAfter(anyLong(), anyString(), anyString(), anyInt()))
+                .thenThrow(InvalidCursorException.class);
+
+        mvc.perform(get("/bookings", 1L)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .param("after", "yesterday")
+                        .header("X-Sharer-User-Id", 1))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void exportOwnerBookingsTest() throws Exception {
+        String line = "{\"id\":1}\n";
+        when(bookingService.exportOwnerBookings(1L, LocalDateTime.of(2030, 1, 1, 12, 0)))
+                .thenReturn(out -> {
+                    out.write(line.getBytes(StandardCharsets.UTF_8));
+                    return 1L;
+                });
+
+        MvcResult result = mvc.perform(get("/bookings/export")
+                        .param("since", "2030-01-01T12:00:00")
+                        .header("X-Sharer-User-Id", 1))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().bytes(line.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void exportOwnerBookingsByNonexistentUserTest() throws Exception {
+        when(bookingService.exportOwnerBookings(99L, null))
+                .thenThrow(NotFoundException.class);
+
+        mvc.perform(get("/bookings/export")
+                        .header("X-Sharer-User-Id", 99))
+                .andExpect(status().isNotFound());
+    }
 }
@@ -0,0 +1,37 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.model.BookingPhase;
+import ru.practicum.shareit.booking.service.BookingPhaseScheduler;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+
+@ExtendWith(MockitoExtension.class)
+public class BookingPhaseSchedulerTest {
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @InjectMocks
+    private BookingPhaseScheduler scheduler;
+
+    @Test
+    void advancePhasesMovesEndedBeforeStartedTest() {
+        scheduler.advancePhases();
+
+        InOrder order = inOrder(bookingRepository);
+        order.verify(bookingRepository).updatePhaseOfEnded(
+                eq(List.of(BookingPhase.FUTURE, BookingPhase.CURRENT)), eq(BookingPhase.PAST), any(LocalDateTime.class));
+        order.verify(bookingRepository).updatePhaseOfStarted(
+                eq(BookingPhase.FUTURE), eq(BookingPhase.CURRENT), any(LocalDateTime.class));
+    }
+}
@@ -0,0 +1,165 @@
+package ru.practicum.shareit.booking;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingPhase;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class BookingRepositoryTest {
+    private static final int ITEM_COUNT = 5;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private BookingRepository repository;
+
+    private User owner;
+    private User booker;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        owner = em.persist(new User(null, "Elon", "elon@spacex.com"));
+        booker = em.persist(new User(null, "Bill", "bill@microsoft.com"));
+        LocalDateTime now = LocalDateTime.now();
+
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            User requestor = em.persist(new User(null, "Steve" + i, "steve" + i + "@apple.com"));
+            ItemRequest request = em.persist(new ItemRequest(null, "нужна дрель", requestor, now));
+            Item item = em.persist(new Item(null, "Дрель" + i, "super1000turbo edition", true, owner, request));
+            em.persist(new Booking(null, now.plusDays(i), now.plusDays(i + 1), item, booker, BookingStatus.WAITING));
+        }
+        em.flush();
+        em.clear();
+
+        statistics = em.getEntityManager()
+                .getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void findOwnerBookingsRunsSingleStatementTest() {
+        List<BookingDto> bookings = repository.findByItemOwnerIdOrderByEndDesc(owner.getId(), PageRequest.of(0, 10))
+                .stream()
+                .map(BookingMapper::toBookingDto)
+                .collect(Collectors.toList());
+
+        assertEquals(ITEM_COUNT, bookings.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findBookerBookingsRunsSingleStatementTest() {
+        List<BookingDto> bookings = repository.findByBookerIdAndStatusOrderByEndDesc(
+                        booker.getId(), BookingStatus.WAITING, PageRequest.of(0, 10))
+                .stream()
+                .map(BookingMapper::toBookingDto)
+                .collect(Collectors.toList());
+
+        assertEquals(ITEM_COUNT, bookings.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findOwnerBookingsAfterRunsSingleStatementTest() {
+        List<BookingDto> bookings = repository.findOwnerBookingsAfter(
+                        owner.getId(), BookingState.ALL, LocalDateTime.now(), null, 10)
+                .stream()
+                .map(BookingMapper::toBookingDto)
+                .collect(Collectors.toList());
+
+        assertEquals(ITEM_COUNT, bookings.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void persistClassifiesPhaseTest() {
+        Booking booking = repository.findByBookerIdOrderByEndDesc(booker.getId(), PageRequest.of(0, 10))
+                .getContent()
+                .get(ITEM_COUNT - 1);
+
+        assertEquals(BookingPhase.CURRENT, booking.getPhase());
+    }
+
+    @Test
+    void findInPhaseCoversBookingsStartedSinceLastTickTest() {
+        em.getEntityManager()
+                .createQuery("update Booking as b set b.phase = ?1")
+                .setParameter(1, BookingPhase.FUTURE)
+                .executeUpdate();
+        LocalDateTime now = LocalDateTime.now();
+
+        Slice<Booking> current = repository.findBookerBookingsInPhase(
+                booker.getId(), BookingPhase.CURRENT, now, PageRequest.of(0, 10));
+        Slice<Booking> future = repository.findOwnerBookingsInPhase(
+                owner.getId(), BookingPhase.FUTURE, now, PageRequest.of(0, 10));
+
+        assertEquals(1, current.getNumberOfElements());
+        assertEquals(ITEM_COUNT - 1, future.getNumberOfElements());
+    }
+
+    @Test
+    void findInPhasePagesByKeysetTest() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> future = ids(repository.findOwnerBookingsInPhase(
+                owner.getId(), BookingPhase.FUTURE, now, PageRequest.of(0, 10)));
+
+        Slice<Booking> first = repository.findOwnerBookingsInPhase(
+                owner.getId(), BookingPhase.FUTURE, now, PageRequest.of(0, 3));
+        statistics.clear();
+        Slice<Booking> second = repository.findOwnerBookingsInPhase(
+                owner.getId(), BookingPhase.FUTURE, now, PageRequest.of(1, 3));
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(future.subList(0, 3), ids(first));
+        assertTrue(first.hasNext());
+        assertEquals(future.subList(3, ITEM_COUNT - 1), ids(second));
+        assertFalse(second.hasNext());
+        assertEquals(0, repository.findOwnerBookingsInPhase(
+                owner.getId(), BookingPhase.FUTURE, now, PageRequest.of(2, 3)).getNumberOfElements());
+    }
+
+    @Test
+    void updatePhaseOfStartedMovesStaleBookingsTest() {
+        em.getEntityManager()
+                .createQuery("update Booking as b set b.phase = ?1")
+                .setParameter(1, BookingPhase.FUTURE)
+                .executeUpdate();
+
+        int started = repository.updatePhaseOfStarted(BookingPhase.FUTURE, BookingPhase.CURRENT, LocalDateTime.now());
+
+        assertEquals(1, started);
+        assertEquals(1, repository.findOwnerBookingsInPhase(
+                owner.getId(), BookingPhase.CURRENT, LocalDateTime.now(), PageRequest.of(0, 1)).getNumberOfElements());
+    }
+
+    private static List<Long> ids(Slice<Booking> bookings) {
+        return bookings.map(Booking::getId).getContent();
+    }
+}
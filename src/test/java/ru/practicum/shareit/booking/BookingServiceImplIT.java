@@ -1,25 +1,54 @@
 package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingBatchResult;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.ApproveRequestException;
+import ru.practicum.shareit.exception.NotAvailableException;
+import ru.practicum.shareit.export.NdjsonExport;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
+import javax.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.startsWith;
 
+/**
+ * Some tests commit their data. The rows are deleted after each test, but the item search index and
+ * the user existence cache still hold them, so the context is not reused by other test classes.
+ */
 @Transactional
+@DirtiesContext
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 @SpringBootTest
 public class BookingServiceImplIT {
@@ -27,6 +56,27 @@ public class BookingServiceImplIT {
     private final ItemService itemService;
     private final UserService userService;
     private final BookingService bookingService;
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+
+    /**
+     * Users created by tests that run without the rolled back test transaction.
+     */
+    private final List<Long> committedUserIds = new ArrayList<>();
+
+    @AfterEach
+    void deleteCommitted() {
+        for (Long userId : committedUserIds) {
+            jdbcTemplate.update("DELETE FROM bookings WHERE booker_id = ? " +
+                    "OR item_id IN (SELECT id FROM items WHERE owner_id = ?)", userId, userId);
+        }
+        for (Long userId : committedUserIds) {
+            jdbcTemplate.update("DELETE FROM items WHERE owner_id = ?", userId);
+        }
+        for (Long userId : committedUserIds) {
+            jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+        }
+    }
 
     @Test
     void approveBookingTest() {
@@ -69,4 +119,208 @@ public class BookingServiceImplIT {
         assertThat(bookingDto3.getId(), equalTo(result3.getId()));
         assertThat(bookingDto3.getStatus(), equalTo(result3.getStatus()));
     }
+
+    @Test
+    void createBookingsTest() {
+        UserDto owner = userService.createUser(new User(null, "Elon", "elon@spacex.com"));
+        UserDto booker = userService.createUser(new User(null, "Bill", "bill@microsoft.com"));
+        ItemDto itemDto = itemService.createItem(
+                new ItemDto(null, "Перфоратор", "Мощный инструмент для ремонта", true, null, null), owner.getId());
+
+        List<BookingBatchResult> results = bookingService.createBookings(List.of(
+                new BookingDto(null, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2),
+                        itemDto.getId(), null, null, null, BookingStatus.WAITING),
+                new BookingDto(null, LocalDateTime.now().plusDays(3), LocalDateTime.now().plusDays(4),
+                        itemDto.getId(), null, null, null, BookingStatus.WAITING),
+                new BookingDto(null, LocalDateTime.now().plusDays(1).plusHours(1), LocalDateTime.now().plusDays(5),
+                        itemDto.getId(), null, null, null, BookingStatus.WAITING)), booker.getId());
+
+        assertThat(results.get(0).getBooking().getBooker().getId(), equalTo(booker.getId()));
+        assertThat(results.get(1).getBooking().getItem().getId(), equalTo(itemDto.getId()));
+        assertThat(results.get(2).getDescription(), equalTo("Вещь уже забронирована на эти даты"));
+        assertThat(bookingService.getUserBookings(booker.getId(), "ALL", 0, 10).size(), equalTo(2));
+    }
+
+    @Test
+    void approveBookingsTest() {
+        UserDto owner = userService.createUser(new User(null, "Elon", "elon@spacex.com"));
+        UserDto booker = userService.createUser(new User(null, "Bill", "bill@microsoft.com"));
+        ItemDto itemDto = itemService.createItem(
+                new ItemDto(null, "Перфоратор", "Мощный инструмент для ремонта", true, null, null), owner.getId());
+        ItemDto otherItemDto = itemService.createItem(
+                new ItemDto(null, "Гвоздь", "Остался лишний", true, null, null), booker.getId());
+
+        BookingDto waiting = bookingService.createBooking(new BookingDto(null, LocalDateTime.now().plusDays(1),
+                LocalDateTime.now().plusDays(2), itemDto.getId(), null, null, null, BookingStatus.WAITING), booker.getId());
+        BookingDto rejected = bookingService.createBooking(new BookingDto(null, LocalDateTime.now().plusDays(3),
+                LocalDateTime.now().plusDays(4), itemDto.getId(), null, null, null, BookingStatus.WAITING), booker.getId());
+        bookingService.approveBooking(rejected.getId(), owner.getId(), false);
+        BookingDto foreign = bookingService.createBooking(new BookingDto(null, LocalDateTime.now().plusDays(1),
+                LocalDateTime.now().plusDays(2), otherItemDto.getId(), null, null, null, BookingStatus.WAITING), owner.getId());
+
+        List<Long> ids = List.of(waiting.getId(), rejected.getId(), foreign.getId());
+        List<BookingBatchResult> result = bookingService.approveBookings(ids, owner.getId(), true);
+
+        assertThat(result.size(), equalTo(3));
+        assertThat(result.get(0).getBooking().getStatus(), equalTo(BookingStatus.APPROVED));
+        assertThat(result.get(0).getBooking().getItem().getId(), equalTo(itemDto.getId()));
+        assertThat(result.get(1).getError(), equalTo(HttpStatus.BAD_REQUEST.toString()));
+        assertThat(result.get(1).getDescription(), equalTo("Бронирование уже отклонено"));
+        assertThat(result.get(2).getError(), equalTo(HttpStatus.NOT_FOUND.toString()));
+        assertThat(bookingService.getBookingById(foreign.getId(), owner.getId()).getStatus(), equalTo(BookingStatus.WAITING));
+
+        List<BookingBatchResult> repeated = bookingService.approveBookings(ids, owner.getId(), false);
+
+        assertThat(repeated.get(0).getBooking(), equalTo(null));
+        assertThat(repeated.get(0).getDescription(), equalTo("Бронирование уже подтверждено"));
+    }
+
+    @Test
+    void getUserBookingsAfterCursorTest() {
+        UserDto owner = userService.createUser(new User(null, "Elon", "elon@spacex.com"));
+        UserDto booker = userService.createUser(new User(null, "Bill", "bill@microsoft.com"));
+
+        ItemDto itemDto = itemService.createItem(
+                new ItemDto(null, "Перфоратор", "Мощный инструмент для ремонта", true, null, null), owner.getId());
+
+        BookingDto bookingDto1 = bookingService.createBooking(new BookingDto(null, LocalDateTime.now().plusDays(1),
+                LocalDateTime.now().plusDays(2), itemDto.getId(), null, null, null, BookingStatus.WAITING), booker.getId());
+        BookingDto bookingDto2 = bookingService.createBooking(new BookingDto(null, LocalDateTime.now().plusDays(3),
+                LocalDateTime.now().plusDays(4), itemDto.getId(), null, null, null, BookingStatus.WAITING), booker.getId());
+        BookingDto bookingDto3 = bookingService.createBooking(new BookingDto(null, LocalDateTime.now().plusDays(5),
+                LocalDateTime.now().plusDays(6), itemDto.getId(), null, null, null, BookingStatus.WAITING), booker.getId());
+
+        Slice<BookingDto> first = bookingService.getUserBookingsAfter(booker.getId(), "ALL", "", 2);
+
+        assertThat(first.hasNext(), equalTo(true));
+        assertThat(first.map(BookingDto::getId).getContent(), equalTo(List.of(bookingDto3.getId(), bookingDto2.getId())));
+
+        Slice<BookingDto> second = bookingService.getUserBookingsAfter(booker.getId(), "ALL",
+                BookingCursor.of(first.getContent().get(1)).format(), 2);
+
+        assertThat(second.hasNext(), equalTo(false));
+        assertThat(second.map(BookingDto::getId).getContent(), equalTo(List.of(bookingDto1.getId())));
+    }
+
+    @Test
+    void exportOwnerBookingsSinceTest() throws IOException {
+        UserDto owner = userService.createUser(new User(null, "Elon", "elon@spacex.com"));
+        UserDto booker = userService.createUser(new User(null, "Bill", "bill@microsoft.com"));
+        ItemDto itemDto = itemService.createItem(
+                new ItemDto(null, "Перфоратор", "Мощный инструмент для ремонта", true, null, null), owner.getId());
+
+        BookingDto past = bookingService.createBooking(new BookingDto(null, LocalDateTime.now().minusDays(10),
+                LocalDateTime.now().minusDays(7), itemDto.getId(), null, null, null, BookingStatus.WAITING), booker.getId());
+        BookingDto future = bookingService.createBooking(new BookingDto(null, LocalDateTime.now().plusDays(1),
+                LocalDateTime.now().plusDays(7), itemDto.getId(), null, null, null, BookingStatus.WAITING), booker.getId());
+        entityManager.flush();
+
+        LocalDateTime since = LocalDateTime.now();
+        jdbcTemplate.update("UPDATE bookings SET updated_at = ? WHERE item_id = ?",
+                Timestamp.valueOf(since.minus(NdjsonExport.SINCE_OVERLAP).minusSeconds(1)), itemDto.getId());
+        assertThat(bookingService.exportOwnerBookings(owner.getId(), since).writeTo(new ByteArrayOutputStream()),
+                equalTo(0L));
+
+        // stamped before since, but committed only after the previous export had run
+        jdbcTemplate.update("UPDATE bookings SET updated_at = ? WHERE id = ?",
+                Timestamp.valueOf(since.minusSeconds(30)), past.getId());
+        bookingService.approveBooking(future.getId(), owner.getId(), true);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = bookingService.exportOwnerBookings(owner.getId(), since).writeTo(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(count, equalTo(2L));
+        assertThat(lines[0], startsWith("{\"id\":" + past.getId() + ","));
+        assertThat(lines[1], startsWith("{\"id\":" + future.getId() + ","));
+        assertThat(lines[1], containsString("\"status\":\"APPROVED\""));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void createOverlappingBookingsConcurrentlyTest() throws Exception {
+        UserDto owner = userService.createUser(new User(null, "Owner", "burst-owner@shareit.ru"));
+        UserDto booker = userService.createUser(new User(null, "Booker", "burst-booker@shareit.ru"));
+        committedUserIds.add(owner.getId());
+        committedUserIds.add(booker.getId());
+
+        ItemDto itemDto = itemService.createItem(
+                new ItemDto(null, "Палатка", "Четырехместная", true, null, null), owner.getId());
+
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        LocalDateTime end = start.plusDays(2);
+
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch ready = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+
+        for (int i = 0; i < threads; i++) {
+            results.add(executor.submit(() -> {
+                ready.await();
+                try {
+                    bookingService.createBooking(new BookingDto(null, start, end, itemDto.getId(), null, null, null,
+                            BookingStatus.WAITING), booker.getId());
+                    return true;
+                } catch (NotAvailableException e) {
+                    return false;
+                }
+            }));
+        }
+        ready.countDown();
+
+        int created = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get()) {
+                created++;
+            }
+        }
+        executor.shutdown();
+
+        assertThat(created, equalTo(1));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void approveAndRejectConcurrentlyTest() throws Exception {
+        UserDto owner = userService.createUser(new User(null, "Owner", "race-owner@shareit.ru"));
+        UserDto booker = userService.createUser(new User(null, "Booker", "race-booker@shareit.ru"));
+        committedUserIds.add(owner.getId());
+        committedUserIds.add(booker.getId());
+
+        ItemDto itemDto = itemService.createItem(
+                new ItemDto(null, "Байдарка", "Двухместная", true, null, null), owner.getId());
+        BookingDto bookingDto = bookingService.createBooking(new BookingDto(null, LocalDateTime.now().plusDays(1),
+                LocalDateTime.now().plusDays(3), itemDto.getId(), null, null, null, BookingStatus.WAITING), booker.getId());
+
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch ready = new CountDownLatch(1);
+        List<Future<BookingStatus>> results = new ArrayList<>();
+
+        for (int i = 0; i < threads; i++) {
+            boolean approved = i % 2 == 0;
+            results.add(executor.submit(() -> {
+                ready.await();
+                try {
+                    return bookingService.approveBooking(bookingDto.getId(), owner.getId(), approved).getStatus();
+                } catch (ApproveRequestException e) {
+                    return null;
+                }
+            }));
+        }
+        ready.countDown();
+
+        List<BookingStatus> decided = new ArrayList<>();
+        for (Future<BookingStatus> result : results) {
+            BookingStatus status = result.get();
+            if (status != null) {
+                decided.add(status);
+            }
+        }
+        executor.shutdown();
+
+        assertThat(decided.size(), equalTo(1));
+        assertThat(bookingService.getBookingById(bookingDto.getId(), owner.getId()).getStatus(), equalTo(decided.get(0)));
+    }
 }
@@ -9,21 +9,33 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpStatus;
+import ru.practicum.shareit.booking.dto.BookingBatchResult;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingPhase;
+import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.service.BookingServiceImpl;
 import ru.practicum.shareit.exception.*;
+import ru.practicum.shareit.export.NdjsonExport;
+import ru.practicum.shareit.export.NdjsonWriter;
 import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserExistenceCache;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -35,21 +47,27 @@ import static org.mockito.Mockito.*;
 public class BookingServiceImplTest {
     @Mock
     private UserRepository userRepository;
+
+    @Mock
+    private UserExistenceCache userExistenceCache;
     @Mock
     private ItemRepository itemRepository;
     @Mock
     private BookingRepository bookingRepository;
+    @Mock
+    private NdjsonWriter ndjsonWriter;
     @InjectMocks
     private BookingServiceImpl bookingService;
 
     @Test
     void createBookingTest() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
         User user1 = new User(1L, "Elon", "elon@spacex.com");
         User user2 = new User(2L, "Bill", "bill@microsoft.com");
         Item item = new Item(1L, "Перфоратор", "Мощный инструмент для ремонта", true, user1, null);
-        Booking booking = new Booking(1L, LocalDateTime.now().minusDays(10), LocalDateTime.now().minusDays(7), item, user2, BookingStatus.APPROVED);
+        Booking booking = new Booking(1L, now.minusDays(10), now.minusDays(7), item, user2, BookingStatus.APPROVED);
 
-        when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
+        when(itemRepository.findByIdForUpdate(item.getId())).thenReturn(Optional.of(item));
         when(userRepository.findById(user2.getId())).thenReturn(Optional.of(user2));
         when(bookingRepository.save(any())).thenReturn(booking);
 
@@ -61,6 +79,22 @@ public class BookingServiceImplTest {
         verify(bookingRepository, Mockito.times(1)).save(booking);
     }
 
+    @Test
+    void createBookingWithOverlappingBookingTest() {
+        User user1 = new User(1L, "Elon", "elon@spacex.com");
+        User user2 = new User(2L, "Bill", "bill@microsoft.com");
+        Item item = new Item(1L, "Перфоратор", "Мощный инструмент для ремонта", true, user1, null);
+        Booking booking = new Booking(1L, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(3), item, user2, BookingStatus.WAITING);
+        BookingDto bookingDto = BookingMapper.toBookingDto(booking);
+
+        when(itemRepository.findByIdForUpdate(item.getId())).thenReturn(Optional.of(item));
+        when(userRepository.findById(user2.getId())).thenReturn(Optional.of(user2));
+        when(bookingRepository.existsOverlapping(item.getId(), bookingDto.getStart(), bookingDto.getEnd())).thenReturn(true);
+
+        assertThrows(NotAvailableException.class, () -> bookingService.createBooking(bookingDto, user2.getId()));
+        verify(bookingRepository, never()).save(any());
+    }
+
     @Test
     void createBookingWithBlankFieldTest() {
         assertThrows(BlankFieldException.class, () -> bookingService.createBooking(new BookingDto(), null));
@@ -101,7 +135,7 @@ public class BookingServiceImplTest {
         Booking booking = new Booking(1L, LocalDateTime.now().minusDays(10), LocalDateTime.now().minusDays(7), item, user2, BookingStatus.APPROVED);
         BookingDto expectedBookingDto = BookingMapper.toBookingDto(booking);
 
-        when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
+        when(itemRepository.findByIdForUpdate(item.getId())).thenReturn(Optional.of(item));
 
         assertThrows(NotAvailableException.class, () -> bookingService.createBooking(expectedBookingDto, user2.getId()));
         verify(bookingRepository, never()).save(any());
@@ -114,13 +148,78 @@ public class BookingServiceImplTest {
         Booking booking = new Booking(1L, LocalDateTime.now().minusDays(10), LocalDateTime.now().minusDays(7), item, user, BookingStatus.APPROVED);
         BookingDto bookingDto = BookingMapper.toBookingDto(booking);
 
-        when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
+        when(itemRepository.findByIdForUpdate(item.getId())).thenReturn(Optional.of(item));
         when(userRepository.findById(99L)).thenReturn(Optional.empty());
 
         assertThrows(NotFoundException.class, () -> bookingService.createBooking(bookingDto, 99L));
         verify(bookingRepository, never()).save(any());
     }
 
+    @Test
+    void createBookingsTest() {
+        LocalDateTime now = LocalDateTime.now();
+        User user1 = new User(1L, "Elon", "elon@spacex.com");
+        User user2 = new User(2L, "Bill", "bill@microsoft.com");
+        Item item1 = new Item(1L, "Перфоратор", "Мощный инструмент для ремонта", true, user1, null);
+        Item item2 = new Item(2L, "Гвоздь", "Остался лишний", false, user1, null);
+        List<BookingDto> bookingDtos = List.of(
+                new BookingDto(null, now.plusDays(1), now.plusDays(3), item1.getId(), null, null, null, BookingStatus.WAITING),
+                new BookingDto(null, now.plusDays(5), now.plusDays(4), item1.getId(), null, null, null, BookingStatus.WAITING),
+                new BookingDto(null, now.plusDays(1), now.plusDays(3), item2.getId(), null, null, null, BookingStatus.WAITING),
+                new BookingDto(null, now.plusDays(1), now.plusDays(3), 99L, null, null, null, BookingStatus.WAITING),
+                new BookingDto(null, now.plusDays(2), now.plusDays(4), item1.getId(), null, null, null, BookingStatus.WAITING));
+
+        when(userRepository.findById(user2.getId())).thenReturn(Optional.of(user2));
+        when(itemRepository.findAllByIdForUpdate(Set.of(item1.getId(), item2.getId(), 99L))).thenReturn(List.of(item1, item2));
+        when(bookingRepository.findOverlapping(any(), any(), any())).thenReturn(List.of());
+        when(bookingRepository.saveAll(any())).thenAnswer(invocation -> {
+            List<Booking> bookings = invocation.getArgument(0);
+            bookings.forEach(booking -> booking.setId(1L));
+            return bookings;
+        });
+
+        List<BookingBatchResult> results = bookingService.createBookings(bookingDtos, user2.getId());
+
+        assertEquals(5, results.size());
+        assertEquals(1L, results.get(0).getBooking().getId());
+        assertEquals(BookingStatus.WAITING, results.get(0).getBooking().getStatus());
+        assertEquals(HttpStatus.BAD_REQUEST.toString(), results.get(1).getError());
+        assertEquals("Вещь недоступна", results.get(2).getDescription());
+        assertEquals(HttpStatus.NOT_FOUND.toString(), results.get(3).getError());
+        assertEquals("Вещь уже забронирована на эти даты", results.get(4).getDescription());
+        verify(bookingRepository, times(1)).saveAll(any());
+    }
+
+    @Test
+    void createBookingsWithOverlappingBookingTest() {
+        LocalDateTime now = LocalDateTime.now();
+        User user1 = new User(1L, "Elon", "elon@spacex.com");
+        User user2 = new User(2L, "Bill", "bill@microsoft.com");
+        Item item = new Item(1L, "Перфоратор", "Мощный инструмент для ремонта", true, user1, null);
+        Booking existing = new Booking(1L, now.plusDays(1), now.plusDays(3), item, user2, BookingStatus.APPROVED);
+        BookingDto bookingDto = new BookingDto(null, now.plusDays(2), now.plusDays(4), item.getId(), null, null, null,
+                BookingStatus.WAITING);
+
+        when(userRepository.findById(user2.getId())).thenReturn(Optional.of(user2));
+        when(itemRepository.findAllByIdForUpdate(Set.of(item.getId()))).thenReturn(List.of(item));
+        when(bookingRepository.findOverlapping(Set.of(item.getId()), bookingDto.getStart(), bookingDto.getEnd()))
+                .thenReturn(List.of(existing));
+
+        List<BookingBatchResult> results = bookingService.createBookings(List.of(bookingDto), user2.getId());
+
+        assertEquals(HttpStatus.BAD_REQUEST.toString(), results.get(0).getError());
+        assertEquals("Вещь уже забронирована на эти даты", results.get(0).getDescription());
+        verify(bookingRepository, times(1)).saveAll(List.of());
+    }
+
+    @Test
+    void createBookingsByNonexistentUserTest() {
+        when(userRepository.findById(99L)).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () -> bookingService.createBookings(List.of(new BookingDto()), 99L));
+        verify(bookingRepository, never()).saveAll(any());
+    }
+
     @Test
     void approveBookingTest() {
         User user = new User(1L, "Elon", "elon@spacex.com");
@@ -128,9 +227,9 @@ public class BookingServiceImplTest {
         Booking booking = new Booking(1L, LocalDateTime.now().minusDays(10), LocalDateTime.now().minusDays(7), item, user, BookingStatus.WAITING);
         Booking expectedBooking = new Booking(1L, booking.getStart(), booking.getEnd(), item, user, BookingStatus.APPROVED);
 
-        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
-        when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
-        when(bookingRepository.save(any())).thenReturn(booking);
+        when(bookingRepository.updateStatusOfOwnerBooking(eq(booking.getId()), eq(user.getId()),
+                eq(BookingStatus.WAITING), eq(BookingStatus.APPROVED), any(LocalDateTime.class))).thenReturn(1);
+        when(bookingRepository.findWithDetailsById(booking.getId())).thenReturn(Optional.of(expectedBooking));
 
         BookingDto expectedBookingDto = BookingMapper.toBookingDto(expectedBooking);
 
@@ -138,7 +237,8 @@ public class BookingServiceImplTest {
 
         assertEquals(expectedBookingDto, approvedBookingDto);
 
-        verify(bookingRepository, Mockito.times(1)).save(booking);
+        verify(bookingRepository, never()).findById(anyLong());
+        verify(bookingRepository, never()).save(any());
     }
 
     @Test
@@ -148,12 +248,73 @@ public class BookingServiceImplTest {
         Booking booking = new Booking(1L, LocalDateTime.now().minusDays(10), LocalDateTime.now().minusDays(7), item, user, BookingStatus.APPROVED);
         BookingDto bookingDto = BookingMapper.toBookingDto(booking);
 
-        when(userRepository.findById(99L)).thenReturn(Optional.empty());
+        when(userExistenceCache.exists(99L)).thenReturn(false);
 
         assertThrows(NotFoundException.class, () -> bookingService.approveBooking(bookingDto.getId(), 99L, true));
         verify(bookingRepository, never()).save(any());
     }
 
+    @Test
+    void approveBookingsTest() {
+        User owner = new User(1L, "Elon", "elon@spacex.com");
+        User booker = new User(2L, "Bill", "bill@microsoft.com");
+        Item item = new Item(1L, "Перфоратор", "Мощный инструмент для ремонта", true, owner, null);
+        Booking booking1 = new Booking(1L, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2), item, booker, BookingStatus.APPROVED);
+        Booking booking2 = new Booking(2L, LocalDateTime.now().plusDays(3), LocalDateTime.now().plusDays(4), item, booker, BookingStatus.REJECTED);
+        List<Long> ids = List.of(99L, 2L, 1L);
+
+        when(userExistenceCache.exists(owner.getId())).thenReturn(true);
+        when(bookingRepository.findIdsOfOwnerBookingsForUpdate(ids, owner.getId(), BookingStatus.WAITING))
+                .thenReturn(List.of(1L));
+        when(bookingRepository.updateStatusOfOwnerBookings(eq(Set.of(1L)), eq(owner.getId()), eq(BookingStatus.WAITING),
+                eq(BookingStatus.APPROVED), any(LocalDateTime.class)))
+                .thenReturn(1);
+        when(bookingRepository.findByIdInAndItemOwnerIdOrderById(ids, owner.getId())).thenReturn(List.of(booking1, booking2));
+
+        List<BookingBatchResult> result = bookingService.approveBookings(ids, owner.getId(), true);
+
+        assertEquals(List.of(
+                BookingBatchResult.failed(HttpStatus.NOT_FOUND, "Бронирование с идентификатором 99 не найдено."),
+                BookingBatchResult.failed(HttpStatus.BAD_REQUEST, "Бронирование уже отклонено"),
+                BookingBatchResult.decided(BookingMapper.toBookingDto(booking1))), result);
+        verify(bookingRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void approveBookingsDecidedByConcurrentCallTest() {
+        User owner = new User(1L, "Elon", "elon@spacex.com");
+        User booker = new User(2L, "Bill", "bill@microsoft.com");
+        Item item = new Item(1L, "Перфоратор", "Мощный инструмент для ремонта", true, owner, null);
+        Booking booking = new Booking(1L, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2), item, booker, BookingStatus.APPROVED);
+        List<Long> ids = List.of(1L);
+
+        when(userExistenceCache.exists(owner.getId())).thenReturn(true);
+        when(bookingRepository.findIdsOfOwnerBookingsForUpdate(ids, owner.getId(), BookingStatus.WAITING))
+                .thenReturn(List.of());
+        when(bookingRepository.findByIdInAndItemOwnerIdOrderById(ids, owner.getId())).thenReturn(List.of(booking));
+
+        List<BookingBatchResult> result = bookingService.approveBookings(ids, owner.getId(), true);
+
+        assertEquals(List.of(BookingBatchResult.failed(HttpStatus.BAD_REQUEST, "Бронирование уже подтверждено")), result);
+        verify(bookingRepository, never()).updateStatusOfOwnerBookings(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void approveBookingsWithNonexistentUserTest() {
+        when(userExistenceCache.exists(99L)).thenReturn(false);
+
+        assertThrows(NotFoundException.class, () -> bookingService.approveBookings(List.of(1L), 99L, false));
+        verify(bookingRepository, never()).updateStatusOfOwnerBookings(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void approveNoBookingsTest() {
+        when(userExistenceCache.exists(1L)).thenReturn(true);
+
+        assertEquals(List.of(), bookingService.approveBookings(List.of(), 1L, true));
+        verify(bookingRepository, never()).updateStatusOfOwnerBookings(any(), any(), any(), any(), any());
+    }
+
     @Test
     void rejectBookingTest() {
         User user = new User(1L, "Elon", "elon@spacex.com");
@@ -161,17 +322,15 @@ public class BookingServiceImplTest {
         Booking booking = new Booking(1L, LocalDateTime.now().minusDays(10), LocalDateTime.now().minusDays(7), item, user, BookingStatus.WAITING);
         Booking expectedBooking = new Booking(1L, booking.getStart(), booking.getEnd(), item, user, BookingStatus.REJECTED);
 
-        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
-        when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
-        when(bookingRepository.save(any())).thenReturn(booking);
+        when(bookingRepository.updateStatusOfOwnerBooking(eq(booking.getId()), eq(user.getId()),
+                eq(BookingStatus.WAITING), eq(BookingStatus.REJECTED), any(LocalDateTime.class))).thenReturn(1);
+        when(bookingRepository.findWithDetailsById(booking.getId())).thenReturn(Optional.of(expectedBooking));
 
         BookingDto expectedBookingDto = BookingMapper.toBookingDto(expectedBooking);
 
         BookingDto approvedBookingDto = bookingService.approveBooking(booking.getId(), user.getId(), false);
 
         assertEquals(expectedBookingDto, approvedBookingDto);
-
-        verify(bookingRepository, Mockito.times(1)).save(booking);
     }
 
     @Test
@@ -186,20 +345,53 @@ public class BookingServiceImplTest {
         Item item = new Item(1L, "Перфоратор", "Мощный инструмент для ремонта", true, user, null);
         Booking booking = new Booking(1L, LocalDateTime.now().minusDays(10), LocalDateTime.now().minusDays(7), item, user, BookingStatus.APPROVED);
 
-        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        when(userExistenceCache.exists(user.getId())).thenReturn(true);
         when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
 
         assertThrows(ApproveRequestException.class, () -> bookingService.approveBooking(booking.getId(), user.getId(), true));
         verify(bookingRepository, never()).save(any());
     }
 
+    @Test
+    void approveBookingOfAnotherOwnerTest() {
+        User owner = new User(1L, "Elon", "elon@spacex.com");
+        User user = new User(2L, "Bill", "bill@microsoft.com");
+        Item item = new Item(1L, "Перфоратор", "Мощный инструмент для ремонта", true, owner, null);
+        Booking booking = new Booking(1L, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(7), item, user, BookingStatus.WAITING);
+
+        when(userExistenceCache.exists(user.getId())).thenReturn(true);
+        when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
+
+        assertThrows(NotFoundException.class, () -> bookingService.approveBooking(booking.getId(), user.getId(), true));
+    }
+
+    @Test
+    void approveNonexistentBookingTest() {
+        when(userExistenceCache.exists(1L)).thenReturn(true);
+        when(bookingRepository.findById(99L)).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () -> bookingService.approveBooking(99L, 1L, true));
+    }
+
+    @Test
+    void rejectAlreadyRejectedBookingTest() {
+        User user = new User(1L, "Elon", "elon@spacex.com");
+        Item item = new Item(1L, "Перфоратор", "Мощный инструмент для ремонта", true, user, null);
+        Booking booking = new Booking(1L, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(7), item, user, BookingStatus.REJECTED);
+
+        when(userExistenceCache.exists(user.getId())).thenReturn(true);
+        when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
+
+        assertThrows(ApproveRequestException.class, () -> bookingService.approveBooking(booking.getId(), user.getId(), false));
+    }
+
     @Test
     void getBookingByIdTest() {
         User user = new User(1L, "Elon", "elon@spacex.com");
         Item item = new Item(1L, "Перфоратор", "Мощный инструмент для ремонта", true, user, null);
         Booking booking = new Booking(1L, LocalDateTime.now().minusDays(10), LocalDateTime.now().minusDays(7), item, user, BookingStatus.APPROVED);
 
-        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        when(userExistenceCache.exists(user.getId())).thenReturn(true);
         when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
 
         BookingDto expectedBookingDto = BookingMapper.toBookingDto(booking);
@@ -221,7 +413,7 @@ public class BookingServiceImplTest {
         Item item = new Item(1L, "Перфоратор", "Мощный инструмент для ремонта", true, user1, null);
         Booking booking = new Booking(1L, LocalDateTime.now().minusDays(10), LocalDateTime.now().minusDays(7), item, user1, BookingStatus.APPROVED);
 
-        when(userRepository.findById(user2.getId())).thenReturn(Optional.of(user2));
+        when(userExistenceCache.exists(user2.getId())).thenReturn(true);
         when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
 
         assertThrows(NotFoundException.class, () -> bookingService.getBookingById(booking.getId(), user2.getId()));
@@ -245,7 +437,7 @@ public class BookingServiceImplTest {
         expected.add(BookingMapper.toBookingDto(booking1));
         expected.add(BookingMapper.toBookingDto(booking2));
 
-        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        when(userExistenceCache.exists(user.getId())).thenReturn(true);
         when(bookingRepository.findByBookerIdOrderByEndDesc(anyLong(), any(Pageable.class))).thenReturn(bookingsPage);
 
         List<BookingDto> result = bookingService.getUserBookings(user.getId(), "ALL", 0, 10);
@@ -271,8 +463,8 @@ public class BookingServiceImplTest {
         expected.add(BookingMapper.toBookingDto(booking1));
         expected.add(BookingMapper.toBookingDto(booking2));
 
-        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
-        when(bookingRepository.findByBookerIdAndStartIsBeforeAndEndIsAfterOrderByEndDesc(anyLong(), any(LocalDateTime.class), any(LocalDateTime.class), any(Pageable.class))).thenReturn(bookingsPage);
+        when(userExistenceCache.exists(user.getId())).thenReturn(true);
+        when(bookingRepository.findBookerBookingsInPhase(anyLong(), eq(BookingPhase.CURRENT), any(LocalDateTime.class), any(Pageable.class))).thenReturn(bookingsPage);
 
         List<BookingDto> result = bookingService.getUserBookings(user.getId(), "CURRENT", 0, 10);
 
@@ -297,8 +489,8 @@ public class BookingServiceImplTest {
         expected.add(BookingMapper.toBookingDto(booking1));
         expected.add(BookingMapper.toBookingDto(booking2));
 
-        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
-        when(bookingRepository.findByBookerIdAndEndIsBeforeOrderByEndDesc(anyLong(), any(LocalDateTime.class), any(Pageable.class))).thenReturn(bookingsPage);
+        when(userExistenceCache.exists(user.getId())).thenReturn(true);
+        when(bookingRepository.findBookerBookingsInPhase(anyLong(), eq(BookingPhase.PAST), any(LocalDateTime.class), any(Pageable.class))).thenReturn(bookingsPage);
 
         List<BookingDto> result = bookingService.getUserBookings(user.getId(), "PAST", 0, 10);
 
@@ -323,8 +515,8 @@ public class BookingServiceImplTest {
         expected.add(BookingMapper.toBookingDto(booking1));
         expected.add(BookingMapper.toBookingDto(booking2));
 
-        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
-        when(bookingRepository.findByBookerIdAndStartIsAfterOrderByEndDesc(anyLong(), any(LocalDateTime.class), any(Pageable.class))).thenReturn(bookingsPage);
+        when(userExistenceCache.exists(user.getId())).thenReturn(true);
+        when(bookingRepository.findBookerBookingsInPhase(anyLong(), eq(BookingPhase.FUTURE), any(LocalDateTime.class), any(Pageable.class))).thenReturn(bookingsPage);
 
         List<BookingDto> result = bookingService.getUserBookings(user.getId(), "FUTURE", 0, 10);
 
@@ -349,7 +541,7 @@ public class BookingServiceImplTest {
         expected.add(BookingMapper.toBookingDto(booking1));
         expected.add(BookingMapper.toBookingDto(booking2));
 
-        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        when(userExistenceCache.exists(user.getId())).thenReturn(true);
         when(bookingRepository.findByBookerIdAndStatusOrderByEndDesc(anyLong(), any(BookingStatus.class), any(Pageable.class))).thenReturn(bookingsPage);
 
         List<BookingDto> result = bookingService.getUserBookings(user.getId(), "WAITING", 0, 10);
@@ -361,7 +553,7 @@ public class BookingServiceImplTest {
     void getUserBookingsWithUnsupportedStateTest() {
         User user = new User(1L, "Elon", "elon@spacex.com");
 
-        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        when(userExistenceCache.exists(user.getId())).thenReturn(true);
 
         assertThrows(UnsupportedStatusException.class, () -> bookingService.getUserBookings(user.getId(), "GOOD", 0, 10));
     }
@@ -384,7 +576,7 @@ public class BookingServiceImplTest {
         expected.add(BookingMapper.toBookingDto(booking1));
         expected.add(BookingMapper.toBookingDto(booking2));
 
-        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        when(userExistenceCache.exists(user.getId())).thenReturn(true);
         when(bookingRepository.findByItemOwnerIdOrderByEndDesc(anyLong(), any(Pageable.class))).thenReturn(bookingsPage);
 
         List<BookingDto> result = bookingService.getOwnerBookings(user.getId(), "ALL", 0, 10);
@@ -410,8 +602,8 @@ public class BookingServiceImplTest {
         expected.add(BookingMapper.toBookingDto(booking1));
         expected.add(BookingMapper.toBookingDto(booking2));
 
-        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
-        when(bookingRepository.findByItemOwnerIdAndStartIsBeforeAndEndIsAfterOrderByEndDesc(anyLong(), any(LocalDateTime.class), any(LocalDateTime.class), any(Pageable.class))).thenReturn(bookingsPage);
+        when(userExistenceCache.exists(user.getId())).thenReturn(true);
+        when(bookingRepository.findOwnerBookingsInPhase(anyLong(), eq(BookingPhase.CURRENT), any(LocalDateTime.class), any(Pageable.class))).thenReturn(bookingsPage);
 
         List<BookingDto> result = bookingService.getOwnerBookings(user.getId(), "CURRENT", 0, 10);
 
@@ -436,8 +628,8 @@ public class BookingServiceImplTest {
         expected.add(BookingMapper.toBookingDto(booking1));
         expected.add(BookingMapper.toBookingDto(booking2));
 
-        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
-        when(bookingRepository.findByItemOwnerIdAndEndIsBeforeOrderByEndDesc(anyLong(), any(LocalDateTime.class), any(Pageable.class))).thenReturn(bookingsPage);
+        when(userExistenceCache.exists(user.getId())).thenReturn(true);
+        when(bookingRepository.findOwnerBookingsInPhase(anyLong(), eq(BookingPhase.PAST), any(LocalDateTime.class), any(Pageable.class))).thenReturn(bookingsPage);
 
         List<BookingDto> result = bookingService.getOwnerBookings(user.getId(), "PAST", 0, 10);
 
@@ -462,8 +654,8 @@ public class BookingServiceImplTest {
         expected.add(BookingMapper.toBookingDto(booking1));
         expected.add(BookingMapper.toBookingDto(booking2));
 
-        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
-        when(bookingRepository.findByItemOwnerIdAndStartIsAfterOrderByEndDesc(anyLong(), any(LocalDateTime.class), any(Pageable.class))).thenReturn(bookingsPage);
+        when(userExistenceCache.exists(user.getId())).thenReturn(true);
+        when(bookingRepository.findOwnerBookingsInPhase(anyLong(), eq(BookingPhase.FUTURE), any(LocalDateTime.class), any(Pageable.class))).thenReturn(bookingsPage);
 
         List<BookingDto> result = bookingService.getOwnerBookings(user.getId(), "FUTURE", 0, 10);
 
@@ -488,7 +680,7 @@ public class BookingServiceImplTest {
         expected.add(BookingMapper.toBookingDto(booking1));
         expected.add(BookingMapper.toBookingDto(booking2));
 
-        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        when(userExistenceCache.exists(user.getId())).thenReturn(true);
         when(bookingRepository.findByItemOwnerIdAndStatusOrderByEndDesc(anyLong(), any(BookingStatus.class), any(Pageable.class))).thenReturn(bookingsPage);
 
         List<BookingDto> result = bookingService.getOwnerBookings(user.getId(), "WAITING", 0, 10);
@@ -500,8 +692,64 @@ public class BookingServiceImplTest {
     void getOwnerBookingsWithUnsupportedStateTest() {
         User user = new User(1L, "Elon", "elon@spacex.com");
 
-        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        when(userExistenceCache.exists(user.getId())).thenReturn(true);
 
         assertThrows(UnsupportedStatusException.class, () -> bookingService.getOwnerBookings(user.getId(), "GOOD", 0, 10));
     }
+
+    @Test
+    void getUserBookingsAfterCursorTest() {
+        User user = new User(1L, "Elon", "elon@spacex.com");
+        Item item = new Item(1L, "Перфоратор", "Мощный инструмент для ремонта", true, null);
+        Booking booking = new Booking(2L, LocalDateTime.now().minusDays(10), LocalDateTime.now().minusDays(7), item, user, BookingStatus.APPROVED);
+        BookingCursor cursor = new BookingCursor(LocalDateTime.of(2022, 10, 10, 12, 0), 5L);
+
+        when(userExistenceCache.exists(user.getId())).thenReturn(true);
+        when(bookingRepository.findBookerBookingsAfter(eq(user.getId()), eq(BookingState.PAST), any(LocalDateTime.class), eq(cursor), eq(10)))
+                .thenReturn(new SliceImpl<>(List.of(booking)));
+
+        Slice<BookingDto> result = bookingService.getUserBookingsAfter(user.getId(), "PAST", cursor.format(), 10);
+
+        assertEquals(List.of(BookingMapper.toBookingDto(booking)), result.getContent());
+    }
+
+    @Test
+    void getOwnerBookingsFromFirstCursorTest() {
+        User user = new User(1L, "Elon", "elon@spacex.com");
+
+        when(userExistenceCache.exists(user.getId())).thenReturn(true);
+        when(bookingRepository.findOwnerBookingsAfter(eq(user.getId()), eq(BookingState.ALL), any(LocalDateTime.class), isNull(), eq(10)))
+                .thenReturn(new SliceImpl<>(List.of()));
+
+        Slice<BookingDto> result = bookingService.getOwnerBookingsAfter(user.getId(), "ALL", "", 10);
+
+        assertEquals(List.of(), result.getContent());
+    }
+
+    @Test
+    void getUserBookingsWithInvalidCursorTest() {
+        User user = new User(1L, "Elon", "elon@spacex.com");
+
+        when(userExistenceCache.exists(user.getId())).thenReturn(true);
+
+        assertThrows(InvalidCursorException.class, () -> bookingService.getUserBookingsAfter(user.getId(), "ALL", "15", 10));
+    }
+
+    @Test
+    void exportOwnerBookingsTest() {
+        NdjsonExport export = out -> 0;
+
+        when(userExistenceCache.exists(1L)).thenReturn(true);
+        when(ndjsonWriter.export(any())).thenReturn(export);
+
+        assertEquals(export, bookingService.exportOwnerBookings(1L, LocalDateTime.now()));
+    }
+
+    @Test
+    void exportOwnerBookingsWithNonexistentUserTest() {
+        when(userExistenceCache.exists(99L)).thenReturn(false);
+
+        assertThrows(NotFoundException.class, () -> bookingService.exportOwnerBookings(99L, null));
+        verify(ndjsonWriter, never()).export(any());
+    }
 }
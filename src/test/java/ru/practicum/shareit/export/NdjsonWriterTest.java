@@ -0,0 +1,63 @@
+package ru.practicum.shareit.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class NdjsonWriterTest {
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void writeTest() throws IOException {
+        NdjsonWriter writer = new NdjsonWriter(new ObjectMapper(), transactionManager);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = writer.write(Stream.of(
+                new UserDto(1L, "Elon", "elon@spacex.com"),
+                new UserDto(2L, "Bill", "bill@microsoft.com")), out);
+
+        assertEquals(2, count);
+        assertEquals("{\"id\":1,\"name\":\"Elon\",\"email\":\"elon@spacex.com\"}\n" +
+                "{\"id\":2,\"name\":\"Bill\",\"email\":\"bill@microsoft.com\"}\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void writeEmptyStreamTest() throws IOException {
+        NdjsonWriter writer = new NdjsonWriter(new ObjectMapper(), transactionManager);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(0, writer.write(Stream.empty(), out));
+        assertEquals("", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void exportClosesStreamInTransactionTest() throws IOException {
+        NdjsonWriter writer = new NdjsonWriter(new ObjectMapper(), transactionManager);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        boolean[] closed = {false};
+
+        long count = writer.export(() -> Stream.of(new UserDto(1L, "Elon", "elon@spacex.com"))
+                        .onClose(() -> closed[0] = true))
+                .writeTo(out);
+
+        assertEquals(1, count);
+        assertTrue(closed[0]);
+        verify(transactionManager).getTransaction(any());
+    }
+}
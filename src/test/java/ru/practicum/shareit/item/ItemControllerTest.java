@@ -7,15 +7,22 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import ru.practicum.shareit.exception.BlankFieldException;
 import ru.practicum.shareit.exception.ForbiddenException;
 import ru.practicum.shareit.exception.NotAvailableException;
+import ru.practicum.shareit.export.RowReader;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemExportDto;
+import ru.practicum.shareit.item.dto.ItemImportResult;
 import ru.practicum.shareit.item.dto.ItemWithBookingDto;
+import ru.practicum.shareit.item.service.ItemImporter;
 import ru.practicum.shareit.item.service.ItemService;
 
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -23,7 +30,9 @@ import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = ItemController.class)
@@ -34,6 +43,9 @@ public class ItemControllerTest {
     @MockBean
     ItemService itemService;
 
+    @MockBean
+    ItemImporter itemImporter;
+
     @Autowired
     private MockMvc mvc;
 
@@ -53,6 +65,22 @@ public class ItemControllerTest {
             null,
             null);
 
+    @Test
+    void importItemsTest() throws Exception {
+        String csv = "name,description,available\nДрель,super1000turbo edition,true\n";
+        when(itemImporter.importItems(eq(1L), any(), argThat(RowReader.TEXT_CSV::isCompatibleWith)))
+                .thenReturn(new ItemImportResult(1, 0, List.of()));
+
+        mvc.perform(post("/items/import")
+                        .content(csv.getBytes(StandardCharsets.UTF_8))
+                        .contentType(RowReader.TEXT_CSV)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("X-Sharer-User-Id", 1))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported", is(1)))
+                .andExpect(jsonPath("$.failed", is(0)));
+    }
+
     @Test
     void createItemTest() throws Exception {
         when(itemService.createItem(itemDto, 1L))
@@ -158,6 +186,55 @@ public class ItemControllerTest {
                 .andExpect(jsonPath("$.length()", is(1)));
     }
 
+    @Test
+    void searchItemByRelevanceTest() throws Exception {
+        when(itemService.searchItemByRelevance(anyString(), anyInt(), anyInt()))
+                .thenReturn(List.of(itemDto));
+
+        mvc.perform(get("/items/search")
+                        .param("text", "текст")
+                        .param("sort", "relevance")
+                        .header("X-Sharer-User-Id", 1))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(1)));
+    }
+
+    @Test
+    void searchItemWithTooLargePageTest() throws Exception {
+        mvc.perform(get("/items/search")
+                        .param("text", "текст")
+                        .param("sort", "relevance")
+                        .param("size", "101")
+                        .header("X-Sharer-User-Id", 1))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void searchItemWithUnsupportedSortTest() throws Exception {
+        mvc.perform(get("/items/search")
+                        .param("text", "текст")
+                        .param("sort", "name")
+                        .header("X-Sharer-User-Id", 1))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getItemAvailabilityTest() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 12, 0);
+        LocalDateTime to = LocalDateTime.of(2030, 1, 2, 12, 0);
+
+        when(itemService.getItemAvailability(1L, from, to))
+                .thenReturn(new ItemAvailabilityDto(1L, from, to, true));
+
+        mvc.perform(get("/items/{id}/availability", 1L)
+                        .param("from", "2030-01-01T12:00:00")
+                        .param("to", "2030-01-02T12:00:00")
+                        .header("X-Sharer-User-Id", 1))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.itemId", is(1L), Long.class))
+                .andExpect(jsonPath("$.available", is(true)));
+    }
+
     @Test
     void addCommentTest() throws Exception {
         when(itemService.addComment(commentDto, 1L, 1L))
@@ -201,4 +278,27 @@ public class ItemControllerTest {
                         .header("X-Sharer-User-Id", 1))
                 .andExpect(status().isBadRequest());
     }
+
+    @Test
+    void exportOwnerItemsTest() throws Exception {
+        String line = mapper.writeValueAsString(new ItemExportDto(1L, "Дрель", "super1000turbo edition", true, 1L, null,
+                LocalDateTime.of(2030, 1, 1, 12, 0)))
+                + "\n";
+        when(itemService.exportOwnerItems(1L, LocalDateTime.of(2030, 1, 1, 12, 0)))
+                .thenReturn(out -> {
+                    out.write(line.getBytes(StandardCharsets.UTF_8));
+                    return 1L;
+                });
+
+        MvcResult result = mvc.perform(get("/items/export")
+                        .param("since", "2030-01-01T12:00:00")
+                        .header("X-Sharer-User-Id", 1))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().bytes(line.getBytes(StandardCharsets.UTF_8)));
+    }
 }
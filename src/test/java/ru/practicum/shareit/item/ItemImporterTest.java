@@ -0,0 +1,180 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.export.RowReader;
+import ru.practicum.shareit.item.dto.ItemImportError;
+import ru.practicum.shareit.item.dto.ItemImportResult;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemImporter;
+import ru.practicum.shareit.item.service.ItemSearchIndex;
+import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserExistenceCache;
+
+import javax.persistence.EntityManager;
+import javax.validation.Validation;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ItemImporterTest {
+    @Mock
+    private ItemRepository itemRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private ItemRequestRepository itemRequestRepository;
+    @Mock
+    private ItemSearchIndex itemSearchIndex;
+    @Mock
+    private UserExistenceCache userExistenceCache;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private EntityManager entityManager;
+
+    private ItemImporter itemImporter;
+
+    private final User owner = new User(1L, "Elon", "elon@spacex.com");
+
+    @BeforeEach
+    void setUp() {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+                .modulesToInstall(new ParameterNamesModule());
+        RowReader rowReader = new RowReader(builder.build(), builder);
+        itemImporter = new ItemImporter(itemRepository, userRepository, itemRequestRepository, itemSearchIndex,
+                userExistenceCache, rowReader, Validation.buildDefaultValidatorFactory().getValidator(),
+                transactionManager, entityManager);
+    }
+
+    @Test
+    void importJsonItemsTest() {
+        User requestor = new User(2L, "Bill", "bill@microsoft.com");
+        ItemRequest request = new ItemRequest(5L, "Нужна дрель", requestor, LocalDateTime.now());
+        String json = "[" +
+                "{\"name\":\"Дрель\",\"description\":\"Мощная\",\"available\":true}," +
+                "{\"name\":\"\",\"description\":\"Без названия\",\"available\":true}," +
+                "{\"name\":\"Перфоратор\",\"description\":\"По запросу\",\"available\":true,\"requestId\":5}," +
+                "{\"name\":\"Гвоздь\",\"description\":\"По чужому запросу\",\"available\":true,\"requestId\":99}" +
+                "]";
+
+        when(userExistenceCache.exists(owner.getId())).thenReturn(true);
+        when(userRepository.getReferenceById(owner.getId())).thenReturn(owner);
+        when(itemRequestRepository.findAllWithRequestorByIdIn(Set.of(5L, 99L))).thenReturn(List.of(request));
+        when(itemRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        ItemImportResult result = itemImporter.importItems(owner.getId(), body(json), MediaType.APPLICATION_JSON);
+
+        assertEquals(2, result.getImported());
+        assertEquals(2, result.getFailed());
+        assertEquals(List.of(2L, 4L), result.getErrors().stream().map(ItemImportError::getRow).collect(Collectors.toList()));
+        verify(itemSearchIndex, times(2)).indexAfterCommit(any());
+    }
+
+    @Test
+    void importCsvItemsTest() {
+        String csv = "name,description,available,requestId\n" +
+                "Дрель,Мощная,true,\n" +
+                "\"Перфоратор, новый\",\"С кейсом\",false,\n";
+
+        when(userExistenceCache.exists(owner.getId())).thenReturn(true);
+        when(userRepository.getReferenceById(owner.getId())).thenReturn(owner);
+        when(itemRepository.saveAll(any())).thenAnswer(invocation -> {
+            List<Item> items = invocation.getArgument(0);
+            assertEquals("Перфоратор, новый", items.get(1).getName());
+            assertEquals(false, items.get(1).isAvailable());
+            return items;
+        });
+
+        ItemImportResult result = itemImporter.importItems(owner.getId(), body(csv), RowReader.TEXT_CSV);
+
+        assertEquals(2, result.getImported());
+        assertEquals(0, result.getFailed());
+        verify(itemRequestRepository, never()).findAllWithRequestorByIdIn(any());
+    }
+
+    @Test
+    void importMalformedItemsTest() {
+        String ndjson = "{\"name\":\"Дрель\",\"description\":\"Мощная\",\"available\":true}\n" +
+                "{\"name\":";
+
+        when(userExistenceCache.exists(owner.getId())).thenReturn(true);
+        when(userRepository.getReferenceById(owner.getId())).thenReturn(owner);
+        when(itemRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        ItemImportResult result = itemImporter.importItems(owner.getId(), body(ndjson), MediaType.APPLICATION_NDJSON);
+
+        assertEquals(1, result.getImported());
+        assertEquals(1, result.getFailed());
+        assertEquals(2L, result.getErrors().get(0).getRow());
+    }
+
+    @Test
+    void importItemsInChunksTest() {
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < 1001; i++) {
+            ndjson.append("{\"name\":\"Гвоздь ").append(i).append("\",\"description\":\"Один\",\"available\":true}\n");
+        }
+
+        when(userExistenceCache.exists(owner.getId())).thenReturn(true);
+        when(userRepository.getReferenceById(owner.getId())).thenReturn(owner);
+        when(itemRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        ItemImportResult result = itemImporter.importItems(owner.getId(), body(ndjson.toString()),
+                MediaType.APPLICATION_NDJSON);
+
+        assertEquals(1001, result.getImported());
+        verify(itemRepository, times(3)).saveAll(any());
+        verify(entityManager, times(3)).clear();
+    }
+
+    @Test
+    void importItemsWithUnreadableDtoTest() {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        RowReader rowReader = new RowReader(builder.build(), builder);
+        ItemImporter importer = new ItemImporter(itemRepository, userRepository, itemRequestRepository,
+                itemSearchIndex, userExistenceCache, rowReader, Validation.buildDefaultValidatorFactory().getValidator(),
+                transactionManager, entityManager);
+
+        when(userExistenceCache.exists(owner.getId())).thenReturn(true);
+
+        assertThrows(IllegalStateException.class, () -> importer.importItems(owner.getId(),
+                body("[{\"name\":\"Дрель\",\"description\":\"Мощная\",\"available\":true}]"),
+                MediaType.APPLICATION_JSON));
+        verify(itemRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void importItemsByNonexistentUserTest() {
+        when(userExistenceCache.exists(99L)).thenReturn(false);
+
+        assertThrows(NotFoundException.class,
+                () -> itemImporter.importItems(99L, body("[]"), MediaType.APPLICATION_JSON));
+        verify(itemRepository, never()).saveAll(any());
+    }
+
+    private static InputStream body(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
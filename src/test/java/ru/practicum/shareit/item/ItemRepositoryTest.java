@@ -1,20 +1,25 @@
 package ru.practicum.shareit.item;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
 
 import java.util.List;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
-@DataJpaTest
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 public class ItemRepositoryTest {
     @Autowired
     private TestEntityManager em;
@@ -45,4 +50,61 @@ public class ItemRepositoryTest {
 
         assertEquals(1, items.size());
     }
+
+    @Test
+    void findAllByOwnerIdRunsSingleStatementTest() {
+        User owner = em.persist(new User(null, "Elon", "elon@spacex.com"));
+        for (int i = 0; i < 3; i++) {
+            em.persist(new Item(null, "Дрель " + i, "super1000turbo edition", true, owner, null));
+        }
+        em.flush();
+        em.clear();
+
+        Statistics statistics = em.getEntityManager()
+                .getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+
+        Slice<Item> first = repository.findAllByOwnerId(owner.getId(), PageRequest.of(0, 2));
+
+        assertEquals(2, first.getContent().size());
+        assertTrue(first.hasNext());
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        statistics.clear();
+        Slice<Item> second = repository.findAllByOwnerId(owner.getId(), first.nextPageable());
+
+        assertEquals(1, second.getContent().size());
+        assertFalse(second.hasNext());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void pageOfSameItemsRunsCountQueryTest() {
+        User owner = em.persist(new User(null, "Elon", "elon@spacex.com"));
+        for (int i = 0; i < 3; i++) {
+            em.persist(new Item(null, "Дрель " + i, "super1000turbo edition", true, owner, null));
+        }
+        em.flush();
+        em.clear();
+
+        Statistics statistics = em.getEntityManager()
+                .getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+
+        Page<Item> first = repository.findAll(PageRequest.of(0, 2));
+
+        assertEquals(2, first.getContent().size());
+        assertEquals(3, first.getTotalElements());
+        assertEquals(2, statistics.getPrepareStatementCount());
+
+        statistics.clear();
+        Slice<Item> slice = repository.findAllByOwnerId(owner.getId(), PageRequest.of(0, 2));
+
+        assertEquals(2, slice.getContent().size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
 }
@@ -0,0 +1,129 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemSearchIndex;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ItemSearchIndexTest {
+    @Mock
+    private ItemRepository itemRepository;
+
+    private ItemSearchIndex index;
+
+    private final ItemDto drill = new ItemDto(1L, "Дрель", "super1000turbo edition", true, null, null);
+    private final ItemDto hammer = new ItemDto(2L, "Молоток", "Забивать гвозди", true, null, null);
+    private final ItemDto saw = new ItemDto(3L, "Пила", "Дрель не нужна", false, null, null);
+
+    @BeforeEach
+    void setUp() {
+        index = new ItemSearchIndex(itemRepository);
+        index.index(drill);
+        index.index(hammer);
+        index.index(saw);
+    }
+
+    @Test
+    void searchByNameTest() {
+        assertEquals(List.of(drill), index.search("дРеЛ", 0, 10));
+    }
+
+    @Test
+    void searchByDescriptionTest() {
+        assertEquals(List.of(hammer), index.search("гвозд", 0, 10));
+    }
+
+    @Test
+    void searchShortQueryTest() {
+        assertEquals(List.of(drill, hammer), index.search("д", 0, 10));
+    }
+
+    @Test
+    void searchNothingFoundTest() {
+        assertEquals(List.of(), index.search("перфоратор", 0, 10));
+    }
+
+    @Test
+    void searchPagedTest() {
+        assertEquals(List.of(hammer), index.search("д", 1, 1));
+    }
+
+    @Test
+    void searchByRelevanceTest() {
+        ItemDto nails = new ItemDto(4L, "Гвозди", "Коробка гвоздей", true, null, null);
+        index.index(nails);
+
+        assertEquals(List.of(nails, hammer), index.searchByRelevance("гвозд", 0, 10));
+        assertEquals(List.of(hammer), index.searchByRelevance("гвозд", 1, 1));
+    }
+
+    @Test
+    void searchByRelevanceWithLargePageTest() {
+        assertEquals(List.of(), index.searchByRelevance("гвозд", Integer.MAX_VALUE, Integer.MAX_VALUE));
+        assertEquals(List.of(hammer), index.searchByRelevance("гвозд", 0, Integer.MAX_VALUE));
+    }
+
+    @Test
+    void reindexUpdatedItemTest() {
+        ItemDto updated = new ItemDto(1L, "Шуруповерт", "super1000turbo edition", true, null, null);
+        index.index(updated);
+
+        assertEquals(List.of(), index.search("дрель", 0, 10));
+        assertEquals(List.of(updated), index.search("шуруп", 0, 10));
+    }
+
+    @Test
+    void rebuildTest() {
+        Item item = new Item(4L, "Перфоратор", "Мощный инструмент для ремонта", true, null);
+        when(itemRepository.findAllWithRequest(any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(item)));
+
+        index.rebuild();
+
+        assertEquals(1, index.search("перфоратор", 0, 10).size());
+    }
+
+    @Test
+    void refreshBeforeRebuildTest() {
+        index.refresh();
+
+        verify(itemRepository, never()).findAllWithRequestUpdatedSince(any(), any());
+    }
+
+    @Test
+    void refreshTest() {
+        Item item = new Item(1L, "Шуруповерт", "super1000turbo edition", true, null);
+        when(itemRepository.findAllWithRequest(any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of()));
+        when(itemRepository.findAllWithRequestUpdatedSince(any(), any()))
+                .thenReturn(new SliceImpl<>(List.of(item)));
+
+        LocalDateTime before = LocalDateTime.now();
+        index.rebuild();
+        index.refresh();
+
+        ArgumentCaptor<LocalDateTime> since = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(itemRepository).findAllWithRequestUpdatedSince(since.capture(), any());
+        assertTrue(since.getValue().isBefore(before.minusSeconds(59)));
+        assertEquals(List.of(), index.search("дрель", 0, 10));
+        assertEquals(1, index.search("шуруп", 0, 10).size());
+    }
+}
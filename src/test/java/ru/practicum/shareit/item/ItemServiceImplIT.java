@@ -4,10 +4,12 @@ import lombok.RequiredArgsConstructor;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.export.NdjsonExport;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemWithBookingDto;
 import ru.practicum.shareit.item.service.ItemService;
@@ -15,12 +17,18 @@ import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
+import javax.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.startsWith;
 
 @Transactional
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
@@ -30,6 +38,8 @@ public class ItemServiceImplIT {
     private final ItemService itemService;
     private final UserService userService;
     private final BookingService bookingService;
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
 
     @Test
     void listItemsOfUserTest() {
@@ -78,4 +88,34 @@ public class ItemServiceImplIT {
 
         assertThat(result, equalTo(expected));
     }
+
+    @Test
+    void exportOwnerItemsSinceTest() throws IOException {
+        UserDto owner = userService.createUser(new User(null, "Elon", "elon@spacex.com"));
+        ItemDto drill = itemService.createItem(
+                new ItemDto(null, "Дрель", "super1000turbo edition", true, null, null), owner.getId());
+        ItemDto nail = itemService.createItem(
+                new ItemDto(null, "Гвоздь", "Остался лишний", true, null, null), owner.getId());
+        entityManager.flush();
+
+        LocalDateTime since = LocalDateTime.now();
+        jdbcTemplate.update("UPDATE items SET updated_at = ? WHERE owner_id = ?",
+                Timestamp.valueOf(since.minus(NdjsonExport.SINCE_OVERLAP).minusSeconds(1)), owner.getId());
+        assertThat(itemService.exportOwnerItems(owner.getId(), since).writeTo(new ByteArrayOutputStream()),
+                equalTo(0L));
+
+        // stamped before since, but committed only after the previous export had run
+        jdbcTemplate.update("UPDATE items SET updated_at = ? WHERE id = ?",
+                Timestamp.valueOf(since.minusSeconds(30)), nail.getId());
+        itemService.updateItem(drill.getId(),
+                new ItemDto(null, "Дрель ударная", null, null, null, null), owner.getId());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = itemService.exportOwnerItems(owner.getId(), since).writeTo(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(count, equalTo(2L));
+        assertThat(lines[0], startsWith("{\"id\":" + nail.getId() + ",\"name\":\"Гвоздь\""));
+        assertThat(lines[1], startsWith("{\"id\":" + drill.getId() + ",\"name\":\"Дрель ударная\""));
+    }
 }
@@ -14,16 +14,21 @@ import ru.practicum.shareit.booking.dto.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.exception.BlankFieldException;
+import ru.practicum.shareit.exception.BookingDateException;
 import ru.practicum.shareit.exception.ForbiddenException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.export.NdjsonExport;
+import ru.practicum.shareit.export.NdjsonWriter;
 import ru.practicum.shareit.item.dto.*;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemSearchIndex;
 import ru.practicum.shareit.item.service.ItemServiceImpl;
 import ru.practicum.shareit.request.ItemRequestRepository;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.dto.UserMapper;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserExistenceCache;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -40,6 +45,9 @@ import static org.mockito.Mockito.*;
 public class ItemServiceImplTest {
     @Mock
     private UserRepository userRepository;
+
+    @Mock
+    private UserExistenceCache userExistenceCache;
     @Mock
     private ItemRepository itemRepository;
     @Mock
@@ -48,6 +56,10 @@ public class ItemServiceImplTest {
     private CommentRepository commentRepository;
     @Mock
     private ItemRequestRepository itemRequestRepository;
+    @Mock
+    private ItemSearchIndex itemSearchIndex;
+    @Mock
+    private NdjsonWriter ndjsonWriter;
     @InjectMocks
     private ItemServiceImpl itemService;
 
@@ -64,6 +76,7 @@ public class ItemServiceImplTest {
 
         assertEquals(ItemMapper.toItemDto(expectedItem), createdItemDto);
         verify(itemRepository, Mockito.times(1)).save(expectedItem);
+        verify(itemSearchIndex, Mockito.times(1)).indexAfterCommit(createdItemDto);
     }
 
     @Test
@@ -124,7 +137,7 @@ public class ItemServiceImplTest {
 
         when(itemRepository.save(any())).thenReturn(expectedItem);
         when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
-        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        when(userExistenceCache.exists(user.getId())).thenReturn(true);
 
         ItemDto updatedItemDto = itemService.updateItem(1L, itemDto, user.getId());
 
@@ -142,7 +155,7 @@ public class ItemServiceImplTest {
     @Test
     void updateItemWithNonexistentUserTest() {
         ItemDto itemDto = new ItemDto(1L, "Перфоратор", "Мощный инструмент для ремонта", true, null, null);
-        when(userRepository.findById(99L)).thenReturn(Optional.empty());
+        when(userExistenceCache.exists(99L)).thenReturn(false);
 
         assertThrows(NotFoundException.class, () -> itemService.updateItem(1L, itemDto, 99L));
         verify(itemRepository, never()).save(any());
@@ -153,7 +166,7 @@ public class ItemServiceImplTest {
         ItemDto itemDto = new ItemDto(1L, "Перфоратор", "Мощный инструмент для ремонта", true, null, null);
         User user = new User(1L, "Elon", "elon@spacex.com");
 
-        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        when(userExistenceCache.exists(user.getId())).thenReturn(true);
         when(itemRepository.findById(1L)).thenReturn(Optional.empty());
 
         assertThrows(NotFoundException.class, () -> itemService.updateItem(1L, itemDto, 1L));
@@ -169,7 +182,7 @@ public class ItemServiceImplTest {
         Item item = new Item(1L, "Перфоратор", "Мощный инструмент для ремонта", true, user1, null);
 
         when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
-        when(userRepository.findById(user2.getId())).thenReturn(Optional.of(user2));
+        when(userExistenceCache.exists(user2.getId())).thenReturn(true);
 
         assertThrows(ForbiddenException.class, () -> itemService.updateItem(1L, itemDto, user2.getId()));
         verify(itemRepository, never()).save(any());
@@ -180,17 +193,8 @@ public class ItemServiceImplTest {
         User user = new User(1L, "Elon", "elon@spacex.com");
         Item item = new Item(1L, "Перфоратор", "Мощный инструмент для ремонта", true, user, null);
 
-        List<Booking> bookings = new ArrayList<>();
-
         Booking booking1 = new Booking(1L, LocalDateTime.now().minusDays(10), LocalDateTime.now().minusDays(8), item, user, BookingStatus.APPROVED);
-        Booking booking2 = new Booking(2L, LocalDateTime.now().minusDays(7), LocalDateTime.now().minusDays(6), item, user, BookingStatus.REJECTED);
         Booking booking3 = new Booking(3L, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(3), item, user, BookingStatus.APPROVED);
-        Booking booking4 = new Booking(4L, LocalDateTime.now().plusDays(4), LocalDateTime.now().plusDays(6), item, user, BookingStatus.REJECTED);
-
-        bookings.add(booking1);
-        bookings.add(booking2);
-        bookings.add(booking3);
-        bookings.add(booking4);
 
         ItemWithBookingDto expectedItem = new ItemWithBookingDto(item.getId(), item.getName(), item.getDescription(),
                 item.isAvailable(), item.getRequest(), BookingMapper.toBookingDto(booking1),
@@ -198,7 +202,12 @@ public class ItemServiceImplTest {
 
 
         when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
-        when(bookingRepository.findAllByItemId(item.getId())).thenReturn(bookings);
+        when(bookingRepository.findFirstByItemIdAndItemOwnerIdAndStartBeforeAndStatusNotOrderByStartDesc(
+                eq(item.getId()), eq(user.getId()), any(LocalDateTime.class), eq(BookingStatus.REJECTED)))
+                .thenReturn(Optional.of(booking1));
+        when(bookingRepository.findFirstByItemIdAndItemOwnerIdAndStartAfterAndStatusNotOrderByStartAsc(
+                eq(item.getId()), eq(user.getId()), any(LocalDateTime.class), eq(BookingStatus.REJECTED)))
+                .thenReturn(Optional.of(booking3));
 
         ItemWithBookingDto resultItemDto = itemService.getItemById(item.getId(), user.getId());
 
@@ -229,27 +238,47 @@ public class ItemServiceImplTest {
         expected.add(itemWithBookingDto2);
         expected.add(itemWithBookingDto3);
 
-        when(itemRepository.findById(item1.getId())).thenReturn(Optional.of(item1));
-        when(itemRepository.findById(item2.getId())).thenReturn(Optional.of(item2));
-        when(itemRepository.findById(item3.getId())).thenReturn(Optional.of(item3));
-
         when(itemRepository.findAllByOwnerId(anyLong(), any(Pageable.class))).thenReturn(itemsPage);
 
         List<ItemWithBookingDto> result = itemService.listItemsOfUser(user.getId(), 0, 10);
 
         assertEquals(expected, result);
+        verify(bookingRepository, Mockito.times(1)).findAllByItemIdIn(List.of(1L, 2L, 3L));
+        verify(commentRepository, Mockito.times(1)).findAllByItemIdIn(List.of(1L, 2L, 3L));
+        verify(itemRepository, never()).findById(anyLong());
     }
 
     @Test
     void searchItemTest() {
         Item item1 = new Item(1L, "Перфоратор", "Мощный инструмент для ремонта", true, null);
-        Page<Item> itemsPage = new PageImpl<>(List.of(item1));
 
-        when(itemRepository.searchItem(anyString(), any(Pageable.class))).thenReturn(itemsPage);
+        when(itemSearchIndex.search("Перф", 0, 10)).thenReturn(List.of(ItemMapper.toItemDto(item1)));
 
         List<ItemDto> result = itemService.searchItem("Перф", 0, 10);
 
         assertEquals(List.of(ItemMapper.toItemDto(item1)), result);
+        verify(itemRepository, never()).searchItem(anyString(), any(Pageable.class));
+    }
+
+    @Test
+    void getItemAvailabilityTest() {
+        User user = new User(1L, "Elon", "elon@spacex.com");
+        Item item = new Item(1L, "Перфоратор", "Мощный инструмент для ремонта", true, user, null);
+        LocalDateTime from = LocalDateTime.now().plusDays(1);
+        LocalDateTime to = LocalDateTime.now().plusDays(2);
+
+        when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
+        when(bookingRepository.existsOverlapping(item.getId(), from, to)).thenReturn(true);
+
+        assertEquals(new ItemAvailabilityDto(item.getId(), from, to, false),
+                itemService.getItemAvailability(item.getId(), from, to));
+    }
+
+    @Test
+    void getItemAvailabilityWithWrongIntervalTest() {
+        LocalDateTime from = LocalDateTime.now().plusDays(2);
+
+        assertThrows(BookingDateException.class, () -> itemService.getItemAvailability(1L, from, from.minusDays(1)));
     }
 
     @Test
@@ -279,4 +308,21 @@ public class ItemServiceImplTest {
         assertEquals(commentDto, result);
         verify(commentRepository, Mockito.times(1)).save(any());
     }
+
+    @Test
+    void exportOwnerItemsTest() {
+        NdjsonExport export = out -> 0;
+
+        when(userExistenceCache.exists(1L)).thenReturn(true);
+        when(ndjsonWriter.export(any())).thenReturn(export);
+
+        assertEquals(export, itemService.exportOwnerItems(1L, null));
+    }
+
+    @Test
+    void exportOwnerItemsWithNonexistentUserTest() {
+        when(userExistenceCache.exists(99L)).thenReturn(false);
+
+        assertThrows(NotFoundException.class, () -> itemService.exportOwnerItems(99L, LocalDateTime.now()));
+    }
 }
@@ -0,0 +1,68 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+import ru.practicum.shareit.user.UserController;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class RequestMetricsFilterTest {
+    private MeterRegistry registry;
+    private RequestMetricsFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        filter = new RequestMetricsFilter(registry);
+    }
+
+    @Test
+    void recordsCountsAndBytesPerHandlerTest() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/users");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE,
+                new HandlerMethod(new Object(), Object.class.getMethod("toString")));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, (req, res) -> {
+            RequestCounts.statementPrepared();
+            RequestCounts.statementPrepared();
+            RequestCounts.entityLoaded();
+            res.getOutputStream().write("[{}]".getBytes(StandardCharsets.UTF_8));
+        });
+
+        assertEquals(2.0, total(RequestMetricsFilter.STATEMENTS, "Object.toString"));
+        assertEquals(1.0, total(RequestMetricsFilter.ENTITIES, "Object.toString"));
+        assertEquals(4.0, total(RequestMetricsFilter.BYTES, "Object.toString"));
+        assertEquals("[{}]", response.getContentAsString());
+    }
+
+    @Test
+    void countsOutsideRequestAreIgnoredTest() throws Exception {
+        RequestCounts.statementPrepared();
+
+        filter.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(), (req, res) -> {
+        });
+
+        assertEquals(0.0, total(RequestMetricsFilter.STATEMENTS, "none"));
+    }
+
+    @Test
+    void handlerNameTest() throws Exception {
+        HandlerMethod handler = new HandlerMethod(new Object(), Object.class.getMethod("hashCode"));
+
+        assertEquals("Object.hashCode", RequestMetricsFilter.handlerName(handler));
+        assertEquals("none", RequestMetricsFilter.handlerName(UserController.class));
+    }
+
+    private double total(String name, String handler) {
+        return registry.get(name).tag("handler", handler).summary().totalAmount();
+    }
+}
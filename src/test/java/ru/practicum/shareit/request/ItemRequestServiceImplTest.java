@@ -22,6 +22,7 @@ import ru.practicum.shareit.request.service.ItemRequestServiceImpl;
 import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.dto.UserMapper;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserExistenceCache;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -38,6 +39,9 @@ import static org.mockito.Mockito.*;
 public class ItemRequestServiceImplTest {
     @Mock
     private UserRepository userRepository;
+
+    @Mock
+    private UserExistenceCache userExistenceCache;
     @Mock
     private ItemRepository itemRepository;
     @Mock
@@ -113,7 +117,7 @@ public class ItemRequestServiceImplTest {
         itemRequestsDto.add(itemRequestDto1);
         itemRequestsDto.add(itemRequestDto2);
 
-        when(userRepository.findById(user1.getId())).thenReturn(Optional.of(user1));
+        when(userExistenceCache.exists(user1.getId())).thenReturn(true);
         when(itemRequestRepository.getItemRequestsByRequestorId(user1.getId())).thenReturn(itemRequests);
         when(itemRepository.findAllByRequestIdIn(anyList())).thenReturn(items);
 
@@ -171,6 +175,21 @@ public class ItemRequestServiceImplTest {
         assertEquals(itemRequestsDto, result);
     }
 
+    @Test
+    void getMyItemRequestsWithoutItemsTest() {
+        User user = new User(1L, "Elon", "elon@spacex.com");
+        ItemRequest itemRequest = new ItemRequest(1L, "нужен перфоратор", user, LocalDateTime.now());
+
+        when(userExistenceCache.exists(user.getId())).thenReturn(true);
+        when(itemRequestRepository.getItemRequestsByRequestorId(user.getId())).thenReturn(List.of(itemRequest));
+        when(itemRepository.findAllByRequestIdIn(anyList())).thenReturn(List.of());
+
+        List<ItemRequestDto> result = itemRequestService.getMyItemRequests(user.getId());
+
+        assertEquals(1, result.size());
+        assertEquals(List.of(), result.get(0).getItems());
+    }
+
     @Test
     void getItemRequestByIdTest() {
         User user = new User(1L, "Elon", "elon@spacex.com");
@@ -192,7 +211,7 @@ public class ItemRequestServiceImplTest {
 
         itemRequestDto.setItems(itemsResponseDto);
 
-        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        when(userExistenceCache.exists(user.getId())).thenReturn(true);
         when(itemRequestRepository.findById(itemRequest.getId())).thenReturn(Optional.of(itemRequest));
         when(itemRepository.findAllByRequestId(itemRequest.getId())).thenReturn(items);
 
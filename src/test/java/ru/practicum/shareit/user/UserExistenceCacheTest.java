@@ -0,0 +1,75 @@
+package ru.practicum.shareit.user;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.user.service.UserExistenceCache;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserExistenceCacheTest {
+    @Mock
+    private UserRepository userRepository;
+
+    @Test
+    void existingUserIsCachedTest() {
+        UserExistenceCache cache = new UserExistenceCache(userRepository, 10, Duration.ofMinutes(5));
+        when(userRepository.existsById(1L)).thenReturn(true);
+
+        assertTrue(cache.exists(1L));
+        assertTrue(cache.exists(1L));
+        verify(userRepository, times(1)).existsById(1L);
+    }
+
+    @Test
+    void nonexistentUserIsNotCachedTest() {
+        UserExistenceCache cache = new UserExistenceCache(userRepository, 10, Duration.ofMinutes(5));
+        when(userRepository.existsById(99L)).thenReturn(false);
+
+        assertFalse(cache.exists(99L));
+        assertFalse(cache.exists(99L));
+        verify(userRepository, times(2)).existsById(99L);
+    }
+
+    @Test
+    void evictedUserIsReloadedTest() {
+        UserExistenceCache cache = new UserExistenceCache(userRepository, 10, Duration.ofMinutes(5));
+        when(userRepository.existsById(1L)).thenReturn(true, false);
+
+        assertTrue(cache.exists(1L));
+        cache.evict(1L);
+        assertFalse(cache.exists(1L));
+    }
+
+    @Test
+    void expiredEntryIsReloadedTest() {
+        UserExistenceCache cache = new UserExistenceCache(userRepository, 10, Duration.ZERO);
+        when(userRepository.existsById(1L)).thenReturn(true);
+
+        cache.exists(1L);
+        cache.exists(1L);
+        verify(userRepository, times(2)).existsById(1L);
+    }
+
+    @Test
+    void leastRecentlyUsedEntryIsDroppedTest() {
+        UserExistenceCache cache = new UserExistenceCache(userRepository, 2, Duration.ofMinutes(5));
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+
+        cache.exists(1L);
+        cache.exists(2L);
+        cache.exists(1L);
+        cache.exists(3L);
+        cache.exists(1L);
+        cache.exists(2L);
+
+        verify(userRepository, times(1)).existsById(1L);
+        verify(userRepository, times(2)).existsById(2L);
+    }
+}
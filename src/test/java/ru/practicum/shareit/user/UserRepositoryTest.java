@@ -0,0 +1,37 @@
+package ru.practicum.shareit.user;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+public class UserRepositoryTest {
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository repository;
+
+    @Test
+    void plainInsertsAndSaveAllShareIdSequenceTest() {
+        jdbcTemplate.update("INSERT INTO users (name, email) VALUES ('Old', 'old1@sequence.ru')");
+        repository.saveAllAndFlush(List.of(
+                new User(null, "New", "new1@sequence.ru"),
+                new User(null, "New", "new2@sequence.ru")));
+        jdbcTemplate.update("INSERT INTO users (name, email) VALUES ('Old', 'old2@sequence.ru')");
+        repository.saveAllAndFlush(List.of(new User(null, "New", "new3@sequence.ru")));
+
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT id FROM users WHERE email LIKE '%@sequence.ru'", Long.class);
+
+        assertEquals(5, ids.size());
+        assertEquals(5, new HashSet<>(ids).size());
+    }
+}
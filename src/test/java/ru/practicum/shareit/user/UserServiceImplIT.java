@@ -10,8 +10,14 @@ import ru.practicum.shareit.user.dto.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.notNullValue;
 
 @Transactional
@@ -33,4 +39,23 @@ public class UserServiceImplIT {
         assertThat(result.getEmail(), equalTo(expected.getEmail()));
 
     }
+
+    @Test
+    void listUsersTest() {
+        UserDto user = service.createUser(new User(null, "Elon", "elon@spacex.com"));
+
+        assertThat(service.listUsers(), hasItem(user));
+    }
+
+    @Test
+    void exportUsersTest() throws IOException {
+        UserDto user = service.createUser(new User(null, "Elon", "elon@spacex.com"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = service.exportUsers().writeTo(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat((long) lines.length, equalTo(count));
+        assertThat(lines[lines.length - 1], containsString(user.getEmail()));
+    }
 }
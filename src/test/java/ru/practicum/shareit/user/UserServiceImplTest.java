@@ -6,19 +6,24 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.export.NdjsonExport;
+import ru.practicum.shareit.export.NdjsonWriter;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserMapper;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserExistenceCache;
 import ru.practicum.shareit.user.service.UserServiceImpl;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
@@ -26,6 +31,10 @@ import static org.mockito.Mockito.*;
 public class UserServiceImplTest {
     @Mock
     private UserRepository userRepository;
+    @Mock
+    private UserExistenceCache userExistenceCache;
+    @Mock
+    private NdjsonWriter ndjsonWriter;
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -80,6 +89,7 @@ public class UserServiceImplTest {
     void deleteUserByIdTest() {
         userService.deleteUser(1L);
         verify(userRepository).deleteById(anyLong());
+        verify(userExistenceCache).evict(1L);
     }
 
     @Test
@@ -105,14 +115,32 @@ public class UserServiceImplTest {
         User user1 = new User(1L, "Elon", "elon@spacex.com");
         User user2 = new User(2L, "Mark", "Mark@meta.com");
 
-        List<User> users = new ArrayList<>();
-        users.add(user1);
-        users.add(user2);
+        List<UserDto> users = new ArrayList<>();
+        users.add(UserMapper.toUserDto(user1));
+        users.add(UserMapper.toUserDto(user2));
 
-        when(userRepository.findAll()).thenReturn(users);
+        when(userRepository.findAllUserDto()).thenReturn(users);
 
         List<UserDto> currentUsers = userService.listUsers();
 
-        assertEquals(users.stream().map(UserMapper::toUserDto).collect(Collectors.toList()), currentUsers);
+        assertEquals(users, currentUsers);
+    }
+
+    @Test
+    void getPagedListUsersTest() {
+        UserDto user = new UserDto(3L, "Bill", "bill@microsoft.com");
+
+        when(userRepository.findAllUserDto(PageRequest.of(1, 2))).thenReturn(new SliceImpl<>(List.of(user)));
+
+        assertEquals(List.of(user), userService.listUsers(2, 2));
+    }
+
+    @Test
+    void exportUsersTest() {
+        NdjsonExport export = out -> 1L;
+
+        when(ndjsonWriter.export(any())).thenReturn(export);
+
+        assertEquals(export, userService.exportUsers());
     }
 }